@@ -18,6 +18,7 @@ package net.mindengine.galen;
 import static java.util.Arrays.asList;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -27,12 +28,12 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Properties;
 import java.util.regex.Pattern;
 
 import net.mindengine.galen.api.Galen;
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserPool;
 import net.mindengine.galen.browser.SeleniumBrowserFactory;
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.javascript.GalenJsExecutor;
@@ -40,8 +41,11 @@ import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.reports.ConsoleReportingListener;
 import net.mindengine.galen.reports.GalenTestInfo;
 import net.mindengine.galen.reports.HtmlReportBuilder;
+import net.mindengine.galen.reports.IncrementalReportWriter;
+import net.mindengine.galen.reports.ReportMerger;
 import net.mindengine.galen.reports.TestNgReportBuilder;
 import net.mindengine.galen.reports.json.JsonReportBuilder;
+import net.mindengine.galen.reports.model.ArtifactWriter;
 import net.mindengine.galen.reports.model.FileTempStorage;
 import net.mindengine.galen.runner.CombinedListener;
 import net.mindengine.galen.runner.CompleteListener;
@@ -49,7 +53,11 @@ import net.mindengine.galen.runner.EventHandler;
 import net.mindengine.galen.runner.GalenArguments;
 import net.mindengine.galen.runner.JsTestCollector;
 import net.mindengine.galen.runner.SuiteListener;
+import net.mindengine.galen.runner.TestDurations;
+import net.mindengine.galen.runner.TestScheduler;
+import net.mindengine.galen.runner.TestShard;
 import net.mindengine.galen.runner.events.TestFilterEvent;
+import net.mindengine.galen.specs.reader.page.PageSpecCompiler;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.suite.actions.GalenPageActionCheck;
@@ -86,6 +94,10 @@ public class GalenMain {
                 performConfig();
             } else if ("dump".equals(arguments.getAction())) {
                 performPageDump(arguments);
+            } else if ("merge-reports".equals(arguments.getAction())) {
+                performMergeReports(arguments);
+            } else if ("compile".equals(arguments.getAction())) {
+                performCompile(arguments);
             }
             combinedListener.done();
 
@@ -286,8 +298,6 @@ public class GalenMain {
 
     private void runTestsInThreads(final EventHandler eventHandler, List<GalenTest> tests, GalenArguments arguments, final CompleteListener listener,
                                    int amountOfThreads) {
-        ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
-
         Pattern filterPattern = createTestFilter(arguments.getFilter());
 
         List<GalenTest> filteredTests = filterTests(tests, eventHandler);
@@ -296,22 +306,66 @@ public class GalenMain {
 
         List<GalenTestInfo> testInfos = Collections.synchronizedList(new LinkedList<GalenTestInfo>());
 
+        List<GalenTest> selectedTests = new LinkedList<GalenTest>();
         for (final GalenTest test : filteredTests) {
             if (matchesPattern(test.getName(), filterPattern)
                     && matchesSelectedGroups(test, arguments.getGroups())
                     && doesNotMatchExcludedGroups(test, arguments.getExcludedGroups())) {
-                executor.execute(new TestRunnable(test, listener, eventHandler, testInfos));
+                selectedTests.add(test);
+            }
+        }
+
+        TestDurations testDurations = TestDurations.load(GalenConfig.getConfig().getTestDurationsFile());
+
+        if (arguments.getShard() != null) {
+            TestShard shard = TestShard.parse(arguments.getShard());
+            if (arguments.getShardTimings() != null) {
+                selectedTests = shard.select(selectedTests, TestDurations.load(new File(arguments.getShardTimings())));
+            }
+            else {
+                selectedTests = shard.select(selectedTests);
             }
         }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
+
+        IncrementalReportWriter reportWriter = createIncrementalReportWriter(arguments);
+
+        List<TestRunnable> testRunnables = new LinkedList<TestRunnable>();
+        for (GalenTest test : selectedTests) {
+            testRunnables.add(new TestRunnable(test, listener, eventHandler, testInfos, reportWriter));
         }
 
-        tellAfterTestSuite(listener, testInfos);
+        ArtifactWriter.setReportDir(findReportDir(arguments));
+        try {
+            new TestScheduler(amountOfThreads, testDurations).run(testRunnables);
+
+            tellAfterTestSuite(listener, testInfos);
 
-        createAllReports(testInfos, arguments);
+            createAllReports(testInfos, arguments, reportWriter);
+
+            cleanData(testInfos);
+        }
+        finally {
+            BrowserPool.getInstance().quitAll();
+            ArtifactWriter.setReportDir(null);
+        }
+    }
 
-        cleanData(testInfos);
+    private IncrementalReportWriter createIncrementalReportWriter(GalenArguments arguments) {
+        if (GalenConfig.getConfig().shouldWriteReportsIncrementally()
+                && (arguments.getHtmlReport() != null || arguments.getJsonReport() != null)) {
+            return new IncrementalReportWriter(arguments.getHtmlReport(), arguments.getJsonReport());
+        }
+        return null;
+    }
+
+    private File findReportDir(GalenArguments arguments) {
+        if (arguments.getHtmlReport() != null) {
+            return new File(arguments.getHtmlReport());
+        }
+        else if (arguments.getJsonReport() != null) {
+            return new File(arguments.getJsonReport());
+        }
+        return null;
     }
 
     private void cleanData(List<GalenTestInfo> testInfos) {
@@ -387,10 +441,19 @@ public class GalenMain {
         }
     }
 
-    private void createAllReports(List<GalenTestInfo> testInfos, GalenArguments arguments) {
+    private void createAllReports(List<GalenTestInfo> testInfos, GalenArguments arguments, IncrementalReportWriter reportWriter) {
         if (arguments.getTestngReport() != null) {
             createTestngReport(arguments.getTestngReport(), testInfos);
         }
+        if (reportWriter != null) {
+            // reports of all tests are already written, only overview is left
+            try {
+                reportWriter.finish();
+            } catch (Exception ex) {
+                LOG.error("Unknown error during finishing reports.", ex);
+            }
+            return;
+        }
         if (arguments.getHtmlReport() != null) {
             createHtmlReport(arguments.getHtmlReport(), testInfos);
         }
@@ -399,6 +462,71 @@ public class GalenMain {
         }
     }
 
+    private void performCompile(GalenArguments arguments) throws IOException {
+        List<File> specFiles = new LinkedList<File>();
+        for (String path : arguments.getPaths()) {
+            File file = new File(path);
+            if (!file.exists()) {
+                throw new FileNotFoundException(path);
+            }
+            searchForSpecs(file, arguments.getRecursive(), specFiles, 0);
+        }
+
+        Properties properties = new Properties();
+        if (arguments.getProperties() != null) {
+            FileInputStream in = new FileInputStream(arguments.getProperties());
+            try {
+                properties.load(in);
+            }
+            finally {
+                in.close();
+            }
+        }
+
+        PageSpecCompiler compiler = new PageSpecCompiler();
+        for (File specFile : specFiles) {
+            if (compiler.compile(specFile.getPath(), properties)) {
+                System.out.println("Compiled " + specFile.getPath());
+            } else {
+                System.out.println("Skipped " + specFile.getPath() + " as it uses page dependent javascript functions");
+            }
+        }
+    }
+
+    private void searchForSpecs(File file, boolean recursive, List<File> specFiles, int level) {
+        if (file.isFile()) {
+            if (level == 0 || file.getName().toLowerCase().endsWith(".spec")) {
+                specFiles.add(file);
+            }
+        } else if (file.isDirectory() && (level == 0 || recursive)) {
+            for (File childFile : file.listFiles()) {
+                searchForSpecs(childFile, recursive, specFiles, level + 1);
+            }
+        }
+    }
+
+    private void performMergeReports(GalenArguments arguments) throws IOException {
+        ReportMerger reportMerger = new ReportMerger();
+        for (String path : arguments.getPaths()) {
+            reportMerger.add(new File(path));
+        }
+
+        if (arguments.getTestngReport() != null) {
+            try {
+                reportMerger.buildTestNgReport(arguments.getTestngReport());
+            } catch (Exception ex) {
+                LOG.error("Unknown error during creating TestNG report.", ex);
+            }
+        }
+        if (arguments.getHtmlReport() != null) {
+            reportMerger.buildHtmlReport(arguments.getHtmlReport());
+        }
+        if (arguments.getJsonReport() != null) {
+            reportMerger.buildJsonReport(arguments.getJsonReport());
+        }
+        System.out.println("Merged " + reportMerger.getTests().size() + " tests from " + arguments.getPaths().size() + " reports");
+    }
+
     private void createJsonReport(String jsonReport, List<GalenTestInfo> testInfos) {
         try {
             new JsonReportBuilder().build(testInfos, jsonReport);
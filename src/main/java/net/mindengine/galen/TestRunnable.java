@@ -16,6 +16,7 @@
 package net.mindengine.galen;
 
 import net.mindengine.galen.reports.GalenTestInfo;
+import net.mindengine.galen.reports.IncrementalReportWriter;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.runner.CompleteListener;
 import net.mindengine.galen.runner.EventHandler;
@@ -40,15 +41,26 @@ public class TestRunnable implements Runnable {
     private final CompleteListener listener;
     private final EventHandler eventHandler;
     private final List<GalenTestInfo> testInfos;
+    private final IncrementalReportWriter reportWriter;
 
     public TestRunnable(GalenTest test, CompleteListener listener, EventHandler eventHandler, List<GalenTestInfo> testInfos) {
+        this(test, listener, eventHandler, testInfos, null);
+    }
+
+    public TestRunnable(GalenTest test, CompleteListener listener, EventHandler eventHandler, List<GalenTestInfo> testInfos,
+                        IncrementalReportWriter reportWriter) {
         this.test = test;
         this.listener = listener;
         this.eventHandler = eventHandler;
         this.testInfos = testInfos;
+        this.reportWriter = reportWriter;
     }
 
 
+    public GalenTest getTest() {
+        return test;
+    }
+
     private GalenTestInfo runTest() {
         GalenTestInfo info = new GalenTestInfo(test.getName(), test);
         TestReport report = new TestReport();
@@ -101,9 +113,21 @@ public class TestRunnable implements Runnable {
             tries++;
         }
 
+        writeReport(info);
         testInfos.add(info);
     }
 
+    private void writeReport(GalenTestInfo info) {
+        if (reportWriter != null) {
+            try {
+                reportWriter.onTestCompleted(info);
+            }
+            catch (Exception e) {
+                LOG.error("Couldn't write report for test: " + info.getName(), e);
+            }
+        }
+    }
+
     private boolean checkIfShouldRetry(GalenTest test, int tries) {
         for (TestRetryEvent retryEvent : eventHandler.getTestRetryEvents()) {
             if (retryEvent.shouldRetry(test, tries)) {
@@ -17,15 +17,19 @@ package net.mindengine.galen.api;
 
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.selenium.SeleniumPage;
 import net.mindengine.galen.reports.LayoutReportListener;
 import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.PageSpec;
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
 import net.mindengine.galen.specs.reader.page.TaggedPageSection;
 import net.mindengine.galen.specs.reader.page.SectionFilter;
+import net.mindengine.galen.tests.TestSession;
 import net.mindengine.galen.validation.*;
 
 import org.apache.commons.io.FileUtils;
@@ -37,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Future;
 
 import static java.util.Arrays.asList;
 
@@ -88,18 +93,14 @@ public class Galen {
         CombinedValidationListener listener = new CombinedValidationListener();
         listener.add(validationListener);
 
-        LayoutReport layoutReport = new LayoutReport();
+        LayoutReport layoutReport = createLayoutReport();
         layoutReport.setIncludedTags(includedTags);
         layoutReport.setExcludedTags(excludedTags);
-        try {
-            File screenshot = page.createScreenshot();
-            if (screenshot != null) {
-                layoutReport.setScreenshot(layoutReport.registerFile("screenshot.png", screenshot));
-            }
-        }
-        catch (Exception ex) {
-            LOG.error("Error during setting screenshot.", ex);
-        
+
+        // Screenshot is taken upfront only if it is explicitly configured,
+        // otherwise it is taken after validation in case it is needed for failure report
+        if (GalenConfig.getConfig().shouldAlwaysTakeScreenshots()) {
+            attachScreenshot(page, layoutReport);
         }
         listener.add(new LayoutReportListener(layoutReport));
 
@@ -122,9 +123,51 @@ public class Galen {
 
         layoutReport.setValidationErrorResults(allValidationErrorResults);
 
+        if (layoutReport.getScreenshot() == null && (page.hasScreenshot() || !allValidationErrorResults.isEmpty())) {
+            attachScreenshot(page, layoutReport);
+        }
+
         return layoutReport;
     }
 
+    /**
+     * Layout checks within the same test share names of report files,
+     * so that e.g. the same screenshot of unchanged page is stored in report only once
+     */
+    private static LayoutReport createLayoutReport() {
+        TestSession session = TestSession.current();
+        if (session != null && session.getReport() != null) {
+            return new LayoutReport(session.getReport().getFileStorage().createStorageWithSharedNames("layout"));
+        }
+        return new LayoutReport();
+    }
+
+    private static void attachScreenshot(Page page, LayoutReport layoutReport) {
+        try {
+            if (page instanceof SeleniumPage) {
+                // the screenshot which was taken in memory is still being encoded, so report waits for it instead of the test
+                Future<File> pendingScreenshot = ((SeleniumPage) page).getPendingScreenshotFile();
+                if (pendingScreenshot != null) {
+                    layoutReport.setScreenshot(layoutReport.registerPendingTempFile("screenshot.png", pendingScreenshot));
+                    return;
+                }
+            }
+
+            File screenshot = page.createScreenshot();
+            if (screenshot != null) {
+                if (page.hasTemporaryScreenshot()) {
+                    layoutReport.setScreenshot(layoutReport.registerTempFile("screenshot.png", screenshot));
+                }
+                else {
+                    layoutReport.setScreenshot(layoutReport.registerFile("screenshot.png", screenshot));
+                }
+            }
+        }
+        catch (Exception ex) {
+            LOG.error("Error during setting screenshot.", ex);
+        }
+    }
+
     private static List<TaggedPageSection> mergeSectionsWithSameName(List<TaggedPageSection> sections) {
         List<TaggedPageSection> mergedSections = new LinkedList<TaggedPageSection>();
 
@@ -201,12 +244,21 @@ public class Galen {
 
         PageDump pageDump = new PageDump();
         pageDump.setTitle(browser.getPage().getTitle());
+        pageDump.setViewport(readViewportArea(browser.getPage()));
         for (String objectName : objectNames) {
             PageElement pageElement = pageValidation.findPageElement(objectName);
 
             if (pageElement.isVisible() && pageElement.getArea() != null) {
                 PageDump.Element element = new PageDump.Element(objectName, pageElement.getArea().toIntArray(), pageElement.getText());
 
+                Locator locator = pageSpec.getObjectLocator(objectName);
+                if (locator != null) {
+                    element.setLocator(locator.prettyString());
+                    if (locator.getIndex() > 0) {
+                        element.setIndex(locator.getIndex());
+                    }
+                }
+
                 if (pageElement.isPresent() && pageElement.isVisible() && isWithinArea(pageElement, maxWidth, maxHeight)) {
                     element.setHasImage(true);
                 }
@@ -225,6 +277,19 @@ public class Galen {
         copyResource("/pagedump/galen-pagedump.css", new File(reportFolder.getAbsolutePath() + File.separator + "galen-pagedump.css"));
     }
 
+    private static int[] readViewportArea(Page page) {
+        try {
+            PageElement viewport = page.getSpecialObject("viewport");
+            if (viewport != null && viewport.getArea() != null) {
+                return viewport.getArea().toIntArray();
+            }
+        }
+        catch (Exception ex) {
+            LOG.warn("Couldn't get viewport size for page dump", ex);
+        }
+        return null;
+    }
+
     private static void copyResource(String resourceName, File destFile) throws IOException {
         String value = IOUtils.toString(Galen.class.getResourceAsStream(resourceName));
         FileUtils.writeStringToFile(destFile, value);
@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class PageDump {
@@ -40,6 +41,11 @@ public class PageDump {
     private String title;
     private Map<String, Element> items = new HashMap<String, Element>();
 
+    /**
+     * Area of browser viewport, which could be smaller than page screenshot e.g. in case of full page screenshots
+     */
+    private int[] viewport;
+
     public void setTitle(String title) {
         this.title = title;
     }
@@ -52,6 +58,14 @@ public class PageDump {
         items.put(element.getObjectName(), element);
     }
 
+    public int[] getViewport() {
+        return viewport;
+    }
+
+    public void setViewport(int[] viewport) {
+        this.viewport = viewport;
+    }
+
     public Map<String, Element> getItems() {
         return items;
     }
@@ -80,6 +94,16 @@ public class PageDump {
         FileUtils.writeStringToFile(file, htmlText);
     }
 
+    public static PageDump loadFromJson(File file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        PageDump pageDump = objectMapper.readValue(file, PageDump.class);
+
+        for (Map.Entry<String, Element> item : pageDump.getItems().entrySet()) {
+            item.getValue().setObjectName(item.getKey());
+        }
+        return pageDump;
+    }
+
     public void makeSureFileExists(File file) throws IOException {
         if (!file.exists()) {
             if (!file.createNewFile()) {
@@ -130,6 +154,13 @@ public class PageDump {
         private int[] area;
         private String text;
         private boolean hasImage = false;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String locator;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer index;
+
+        public Element() {
+        }
 
         public Element(String objectName, int[] area, String text) {
             setObjectName(objectName);
@@ -168,5 +199,21 @@ public class PageDump {
         public boolean getHasImage() {
             return hasImage;
         }
+
+        public String getLocator() {
+            return locator;
+        }
+
+        public void setLocator(String locator) {
+            this.locator = locator;
+        }
+
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
     }
 }
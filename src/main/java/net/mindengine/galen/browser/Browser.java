@@ -48,4 +48,10 @@ public interface Browser {
      */
     File createScreenshot();
 
+    /**
+     * Tells the browser that the page might have changed outside of its control
+     * so that the next call to getPage should not reuse any cached page state
+     */
+    void invalidatePage();
+
 }
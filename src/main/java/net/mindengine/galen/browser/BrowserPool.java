@@ -0,0 +1,360 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.awt.Dimension;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.utils.GalenUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps opened browsers between page tests so that they could be reused instead of starting
+ * a new browser for each test. Browsers are grouped by their browser factories,
+ * so the factories should implement equals and hashCode. The pool is thread-safe and
+ * can be shared by tests running in parallel threads. The pool size limits the amount of browsers
+ * which are opened at the same time, so tests wait for a free browser in case all of them are in use.
+ * If the pool size is 0 then each browser is quit right after it was released
+ */
+public class BrowserPool {
+
+    private final static Logger LOG = LoggerFactory.getLogger(BrowserPool.class);
+
+    private static final String JS_CLEAR_STORAGE = "try { window.localStorage.clear(); } catch(e) {}"
+            + "try { window.sessionStorage.clear(); } catch(e) {}";
+    private static final String BLANK_PAGE = "about:blank";
+
+    private static BrowserPool instance;
+
+    private final int size;
+    private final int maxUses;
+
+    private final Map<BrowserFactory, LinkedList<Browser>> idleBrowsers = new HashMap<BrowserFactory, LinkedList<Browser>>();
+    private final Map<Browser, Integer> usages = new IdentityHashMap<Browser, Integer>();
+    private final Map<Browser, Dimension> initialSizes = new IdentityHashMap<Browser, Dimension>();
+    private int idleCount = 0;
+
+    /**
+     * Amount of opened browsers including the idle ones and the ones that are currently in use
+     */
+    private int openedCount = 0;
+
+    public BrowserPool(int size, int maxUses) {
+        this.size = size;
+        this.maxUses = maxUses;
+    }
+
+    public synchronized static BrowserPool getInstance() {
+        if (instance == null) {
+            GalenConfig config = GalenConfig.getConfig();
+            instance = new BrowserPool(config.getIntProperty(GalenConfig.BROWSER_POOL_SIZE, 0),
+                    config.getIntProperty(GalenConfig.BROWSER_POOL_MAX_USES, 10));
+
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    instance.quitAll();
+                }
+            });
+        }
+        return instance;
+    }
+
+    /**
+     * Returns an idle browser from the pool which passes health check or opens a new one.
+     * In case the pool already has the maximum amount of opened browsers it quits an idle browser
+     * of other factory or waits until some browser is released
+     * @param browserFactory - factory which is used for opening a browser if there is no idle one
+     * @return
+     */
+    public Browser acquire(BrowserFactory browserFactory) {
+        if (size <= 0) {
+            return browserFactory.openBrowser();
+        }
+
+        while (true) {
+            Lease lease = waitForLease(browserFactory);
+
+            if (lease.idleBrowser != null) {
+                if (isHealthy(lease.idleBrowser)) {
+                    return lease.idleBrowser;
+                }
+                discard(lease.idleBrowser);
+            }
+            else {
+                if (lease.evictedBrowser != null) {
+                    quit(lease.evictedBrowser);
+                }
+                return openBrowser(browserFactory);
+            }
+        }
+    }
+
+    /**
+     * Returns browser back to the pool. The browser is cleaned from cookies and storage,
+     * gets its initial window size back and is quit in case it was used too many times
+     * or loaded pages from more than one origin
+     * @param browserFactory - factory with which the browser was acquired
+     * @param browser
+     */
+    public void release(BrowserFactory browserFactory, Browser browser) {
+        if (size <= 0) {
+            quit(browser);
+            return;
+        }
+
+        int uses = increaseUsages(browser);
+        if (uses < maxUses && stayedOnCurrentOrigin(browser) && reset(browser)) {
+            putIdleBrowser(browserFactory, browser);
+        }
+        else {
+            discard(browser);
+        }
+    }
+
+    public void quitAll() {
+        LinkedList<Browser> browsers = new LinkedList<Browser>();
+
+        synchronized (this) {
+            for (LinkedList<Browser> factoryBrowsers : idleBrowsers.values()) {
+                browsers.addAll(factoryBrowsers);
+            }
+            idleBrowsers.clear();
+            openedCount -= idleCount;
+            idleCount = 0;
+            notifyAll();
+        }
+
+        for (Browser browser : browsers) {
+            quit(browser);
+        }
+    }
+
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    public synchronized int getOpenedCount() {
+        return openedCount;
+    }
+
+    private synchronized Lease waitForLease(BrowserFactory browserFactory) {
+        while (true) {
+            Browser browser = takeIdleBrowser(browserFactory);
+            if (browser != null) {
+                return Lease.reuse(browser);
+            }
+            if (openedCount < size) {
+                openedCount++;
+                return Lease.openNew(null);
+            }
+
+            Browser evictedBrowser = takeAnyIdleBrowser();
+            if (evictedBrowser != null) {
+                return Lease.openNew(evictedBrowser);
+            }
+
+            try {
+                wait();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a free browser", e);
+            }
+        }
+    }
+
+    private Browser openBrowser(BrowserFactory browserFactory) {
+        Browser browser;
+        try {
+            browser = browserFactory.openBrowser();
+        }
+        catch (RuntimeException ex) {
+            freeSlot();
+            throw ex;
+        }
+
+        try {
+            Dimension initialSize = browser.getScreenSize();
+            if (initialSize != null) {
+                synchronized (this) {
+                    initialSizes.put(browser, initialSize);
+                }
+            }
+        }
+        catch (Exception ex) {
+            LOG.trace("Couldn't get initial window size of browser", ex);
+        }
+        return browser;
+    }
+
+    private Browser takeIdleBrowser(BrowserFactory browserFactory) {
+        LinkedList<Browser> browsers = idleBrowsers.get(browserFactory);
+        if (browsers != null && browsers.size() > 0) {
+            idleCount--;
+            return browsers.removeFirst();
+        }
+        else return null;
+    }
+
+    private Browser takeAnyIdleBrowser() {
+        Iterator<LinkedList<Browser>> it = idleBrowsers.values().iterator();
+        while (it.hasNext()) {
+            LinkedList<Browser> browsers = it.next();
+            if (browsers.size() > 0) {
+                idleCount--;
+                return browsers.removeFirst();
+            }
+        }
+        return null;
+    }
+
+    private synchronized void putIdleBrowser(BrowserFactory browserFactory, Browser browser) {
+        LinkedList<Browser> browsers = idleBrowsers.get(browserFactory);
+        if (browsers == null) {
+            browsers = new LinkedList<Browser>();
+            idleBrowsers.put(browserFactory, browsers);
+        }
+        browsers.add(browser);
+        idleCount++;
+        notifyAll();
+    }
+
+    private synchronized void freeSlot() {
+        openedCount--;
+        notifyAll();
+    }
+
+    private synchronized int increaseUsages(Browser browser) {
+        Integer uses = usages.get(browser);
+        if (uses == null) {
+            uses = 0;
+        }
+        uses++;
+        usages.put(browser, uses);
+        return uses;
+    }
+
+    private boolean isHealthy(Browser browser) {
+        try {
+            browser.getUrl();
+            return true;
+        }
+        catch (Exception ex) {
+            LOG.trace("Pooled browser didn't pass health check", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Cookies and storage can only be cleaned for the origin of currently opened page,
+     * so the browser is reused only if it didn't load pages from any other origin
+     */
+    private boolean stayedOnCurrentOrigin(Browser browser) {
+        try {
+            Set<String> origins = new HashSet<String>();
+            if (browser instanceof SeleniumBrowser) {
+                origins.addAll(((SeleniumBrowser) browser).getLoadedOrigins());
+            }
+            String currentOrigin = GalenUtils.getOrigin(browser.getUrl());
+            if (currentOrigin != null) {
+                origins.add(currentOrigin);
+            }
+            return origins.isEmpty() || (origins.size() == 1 && origins.contains(currentOrigin));
+        }
+        catch (Exception ex) {
+            LOG.trace("Couldn't get origins of pooled browser", ex);
+            return false;
+        }
+    }
+
+    private boolean reset(Browser browser) {
+        try {
+            if (browser instanceof SeleniumBrowser) {
+                ((SeleniumBrowser) browser).getDriver().manage().deleteAllCookies();
+            }
+            browser.executeJavascript(JS_CLEAR_STORAGE);
+            browser.load(BLANK_PAGE);
+            if (browser instanceof SeleniumBrowser) {
+                ((SeleniumBrowser) browser).clearLoadedOrigins();
+            }
+
+            Dimension initialSize;
+            synchronized (this) {
+                initialSize = initialSizes.get(browser);
+            }
+            if (initialSize != null) {
+                browser.changeWindowSize(initialSize);
+            }
+            return true;
+        }
+        catch (Exception ex) {
+            LOG.trace("Couldn't reset pooled browser", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Quits the browser and frees its slot in the pool
+     */
+    private void discard(Browser browser) {
+        quit(browser);
+        freeSlot();
+    }
+
+    private void quit(Browser browser) {
+        synchronized (this) {
+            usages.remove(browser);
+            initialSizes.remove(browser);
+        }
+        try {
+            browser.quit();
+        }
+        catch (Exception ex) {
+            LOG.trace("Unknown error during quiting browser", ex);
+        }
+    }
+
+    /**
+     * Result of waiting for a browser: either an idle browser which can be reused
+     * or a permission to open a new one, possibly in place of an evicted idle browser
+     */
+    private static class Lease {
+        private Browser idleBrowser;
+        private Browser evictedBrowser;
+
+        private static Lease reuse(Browser idleBrowser) {
+            Lease lease = new Lease();
+            lease.idleBrowser = idleBrowser;
+            return lease;
+        }
+
+        private static Lease openNew(Browser evictedBrowser) {
+            Lease lease = new Lease();
+            lease.evictedBrowser = evictedBrowser;
+            return lease;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.dump.DumpPage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A browser that doesn't use WebDriver and instead serves the page stored by page dump.
+ * It allows to run layout checks against previously exported pages. As page dump is static
+ * all navigation and resizing calls are ignored and javascript is skipped. Each instance is independent,
+ * so multiple page dumps can be checked in parallel threads.
+ */
+public class DumpBrowser implements Browser {
+
+    private final static Logger LOG = LoggerFactory.getLogger(DumpBrowser.class);
+
+    private final File pageDumpFolder;
+    private final DumpPage page;
+
+    public DumpBrowser(File pageDumpFolder) throws IOException {
+        this.pageDumpFolder = pageDumpFolder;
+        this.page = DumpPage.loadFromFolder(pageDumpFolder);
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public void changeWindowSize(Dimension screenSize) {
+    }
+
+    @Override
+    public void load(String url) {
+    }
+
+    @Override
+    public Object executeJavascript(String javascript) {
+        LOG.warn("Javascript cannot be executed against page dump, skipping it: " + javascript);
+        return null;
+    }
+
+    @Override
+    public Page getPage() {
+        return page;
+    }
+
+    @Override
+    public void refresh() {
+    }
+
+    @Override
+    public String getUrl() {
+        return pageDumpFolder.getAbsolutePath();
+    }
+
+    @Override
+    public Dimension getScreenSize() {
+        BufferedImage image = page.getScreenshotImage();
+        return new Dimension(image.getWidth(), image.getHeight());
+    }
+
+    @Override
+    public File createScreenshot() {
+        return page.createScreenshot();
+    }
+
+    @Override
+    public void invalidatePage() {
+    }
+}
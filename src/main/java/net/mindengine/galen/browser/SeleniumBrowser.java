@@ -16,9 +16,11 @@
 package net.mindengine.galen.browser;
 
 import java.awt.Dimension;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-
+import java.util.HashSet;
+import java.util.Set;
 
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
@@ -32,6 +34,19 @@ public class SeleniumBrowser implements Browser {
 
     private WebDriver driver;
 
+    /**
+     * Dropped by every call that could change the page, so that it is only reused
+     * by consecutive checks with no page actions in between
+     */
+    private SeleniumPage cachedPage;
+
+    /**
+     * Origins of all urls loaded in this browser since the last time they were cleared.
+     * Browser pool uses them to find out whether the browser visited other sites
+     * which cookies and storage it can't clean
+     */
+    private final Set<String> loadedOrigins = new HashSet<String>();
+
     public SeleniumBrowser(WebDriver driver) {
         this.driver = driver;
     }
@@ -47,22 +62,49 @@ public class SeleniumBrowser implements Browser {
 
     @Override
     public void changeWindowSize(Dimension windowSize) {
+        invalidatePage();
         driver.manage().window().setSize(new org.openqa.selenium.Dimension(windowSize.width, windowSize.height));
     }
 
     @Override
     public void load(String url) {
+        invalidatePage();
+        String origin = GalenUtils.getOrigin(url);
+        if (origin != null) {
+            loadedOrigins.add(origin);
+        }
         driver.get(url);
     }
 
+    public Set<String> getLoadedOrigins() {
+        return loadedOrigins;
+    }
+
+    public void clearLoadedOrigins() {
+        loadedOrigins.clear();
+    }
+
     @Override
     public Object executeJavascript(String javascript) {
+        invalidatePage();
         return ((JavascriptExecutor)driver).executeScript(javascript);
     }
 
     @Override
     public Page getPage() {
-        return new SeleniumPage(driver);
+        if (!GalenConfig.getConfig().shouldCachePage()) {
+            return new SeleniumPage(driver);
+        }
+
+        if (cachedPage == null) {
+            cachedPage = new SeleniumPage(driver);
+        }
+        return cachedPage;
+    }
+
+    @Override
+    public void invalidatePage() {
+        cachedPage = null;
     }
 
     @Override
@@ -91,9 +133,24 @@ public class SeleniumBrowser implements Browser {
     private File makeSimpleScreenshot() throws IOException {
         return GalenUtils.takeScreenshot(driver);
     }
+
+    /**
+     * Takes a screenshot and keeps it in memory without encoding it to a file
+     */
+    public BufferedImage createScreenshotImage() {
+        try {
+            if (GalenConfig.getConfig().getBooleanProperty(GalenConfig.SCREENSHOT_FULLPAGE, false)) {
+                return GalenUtils.makeFullScreenshotImage(driver);
+            }
+            else return GalenUtils.takeScreenshotImage(driver);
+        } catch (Exception e) {
+            throw new RuntimeException("Error making screenshot", e);
+        }
+    }
     
     @Override
     public void refresh() {
+        invalidatePage();
         driver.navigate().refresh();
     }
 
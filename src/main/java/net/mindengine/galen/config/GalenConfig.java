@@ -35,13 +35,28 @@ public class GalenConfig {
     
     public final static GalenConfig instance = new GalenConfig();
     public static final String SCREENSHOT_AUTORESIZE = "galen.screenshot.autoresize";
+    public static final String SCREENSHOT_ALWAYS = "galen.browser.screenshots.always";
     public static final String SCREENSHOT_FULLPAGE = "galen.browser.screenshots.fullPage";
     // smart waiting for scroll position, but with a timeout, set to zero to turn off smart wait
     public static final String SCREENSHOT_FULLPAGE_SCROLLTIMEOUT= "galen.browser.screenshots.fullPage.scrollTimeout";
     // hard wait during scroll
     public static final String SCREENSHOT_FULLPAGE_SCROLLWAIT = "galen.browser.screenshots.fullPage.scrollWait";
+    public static final String BROWSER_POOL_SIZE = "galen.browser.pool.size";
+    public static final String BROWSER_POOL_MAX_USES = "galen.browser.pool.maxUses";
+    public static final String TEST_DURATIONS_FILE = "galen.tests.durations.file";
+    public static final String VALIDATION_THREADS = "galen.validation.threads";
+    public static final String SPEC_CACHE_SIZE = "galen.spec.cache.size";
+    public static final String PAGE_SNAPSHOT = "galen.browser.page.snapshot";
+    public static final String PAGE_CACHE = "galen.browser.page.cache";
+    public static final String WAIT_IN_BROWSER = "galen.browser.wait.inBrowser";
+    public static final String SCRIPT_TIMEOUT = "galen.browser.script.timeout";
+    public static final String STABLE_FRAMES = "galen.browser.stable.frames";
+    public static final String ARTIFACT_WRITER_THREADS = "galen.reports.artifacts.threads";
+    public static final String REPORTS_INCREMENTAL = "galen.reports.incremental";
     public static final String SPEC_IMAGE_TOLERANCE = "galen.spec.image.tolerance";
     public static final String SPEC_IMAGE_ERROR_RATE = "galen.spec.image.error";
+    public static final String SPEC_IMAGE_CACHE_SIZE = "galen.spec.image.cache.size";
+    public static final String SPEC_IMAGE_THREADS = "galen.spec.image.threads";
     public static final String SPEC_GLOBAL_VISIBILITY_CHECK = "galen.spec.global.visibility";
 
     public static final String TEST_JS_SUFFIX = "galen.test.js.file.suffix";
@@ -192,10 +207,58 @@ public class GalenConfig {
         return getBooleanProperty(GalenConfig.SCREENSHOT_AUTORESIZE, true);
     }
 
+    public boolean shouldAlwaysTakeScreenshots() {
+        return getBooleanProperty(GalenConfig.SCREENSHOT_ALWAYS, false);
+    }
+
+    public boolean shouldTakePageSnapshot() {
+        return getBooleanProperty(GalenConfig.PAGE_SNAPSHOT, false);
+    }
+
+    public boolean shouldCachePage() {
+        return getBooleanProperty(GalenConfig.PAGE_CACHE, false);
+    }
+
+    public boolean shouldWaitInBrowser() {
+        return getBooleanProperty(GalenConfig.WAIT_IN_BROWSER, false);
+    }
+
+    public int getScriptTimeout() {
+        return getIntProperty(GalenConfig.SCRIPT_TIMEOUT, 0, 0, Integer.MAX_VALUE);
+    }
+
+    public int getStableFrames() {
+        return getIntProperty(GalenConfig.STABLE_FRAMES, 5, 1, 1000);
+    }
+
+    public File getTestDurationsFile() {
+        String path = readProperty(TEST_DURATIONS_FILE);
+        if (path != null && !path.trim().isEmpty()) {
+            return new File(path.trim());
+        }
+        return null;
+    }
+
+    public boolean shouldWriteReportsIncrementally() {
+        return getBooleanProperty(GalenConfig.REPORTS_INCREMENTAL, false);
+    }
+
+    public int getArtifactWriterThreads() {
+        return getIntProperty(GalenConfig.ARTIFACT_WRITER_THREADS, 1, 0, 64);
+    }
+
+    public int getValidationThreads() {
+        return getIntProperty(GalenConfig.VALIDATION_THREADS, 0);
+    }
+
     public boolean shouldCheckVisibilityGlobally() {
         return getBooleanProperty(GalenConfig.SPEC_GLOBAL_VISIBILITY_CHECK, true);
     }
 
+    public int getImageSpecThreads() {
+        return getIntProperty(GalenConfig.SPEC_IMAGE_THREADS, 0);
+    }
+
     public int getImageSpecDefaultTolerance() {
         return getIntProperty(GalenConfig.SPEC_IMAGE_TOLERANCE, 25);
     }
@@ -0,0 +1,124 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page;
+
+/**
+ * Immutable copy of page element geometry and visibility.
+ * Used for evaluating geometric specs from multiple threads without touching the browser.
+ * Text and css properties are not part of geometry, so they are taken from the original element
+ */
+public class FrozenPageElement extends PageElement {
+
+    private final PageElement element;
+    private final boolean present;
+    private final boolean visible;
+    private final Rect area;
+
+    public FrozenPageElement(PageElement element, boolean present, boolean visible, Rect area) {
+        this.element = element;
+        this.present = present;
+        this.visible = visible;
+        this.area = area;
+    }
+
+    /**
+     * Reads geometry and visibility of the given element.
+     * The area of element which is absent or not visible is taken only if it is available
+     * @param element
+     * @return frozen element or null in case element could not be frozen
+     */
+    public static FrozenPageElement freeze(PageElement element) {
+        if (element == null) {
+            return null;
+        }
+
+        try {
+            boolean present = element.isPresent();
+            boolean visible = present && element.isVisible();
+
+            if (present && visible) {
+                return new FrozenPageElement(element, true, true, element.getArea());
+            }
+            else {
+                return new FrozenPageElement(element, present, visible, areaIfAvailable(element));
+            }
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static Rect areaIfAvailable(PageElement element) {
+        try {
+            return element.getArea();
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    public boolean hasArea() {
+        return area != null;
+    }
+
+    @Override
+    protected Rect calculateArea() {
+        if (area == null) {
+            throw new IllegalStateException("Area of element was not frozen");
+        }
+        return area;
+    }
+
+    @Override
+    public boolean isPresent() {
+        return present;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public int getWidth() {
+        return getArea().getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return getArea().getHeight();
+    }
+
+    @Override
+    public int getLeft() {
+        return getArea().getLeft();
+    }
+
+    @Override
+    public int getTop() {
+        return getArea().getTop();
+    }
+
+    @Override
+    public String getText() {
+        return element.getText();
+    }
+
+    @Override
+    public String getCssProperty(String cssPropertyName) {
+        return element.getCssProperty(cssPropertyName);
+    }
+}
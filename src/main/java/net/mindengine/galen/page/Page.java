@@ -17,6 +17,8 @@ package net.mindengine.galen.page;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 
 import net.mindengine.galen.specs.page.Locator;
 
@@ -51,6 +53,20 @@ public interface Page {
      */
     File createScreenshot();
 
+    /**
+     * Checks whether the screenshot was already taken or provided via setScreenshot method
+     * so that it could be obtained without additional cost
+     * @return
+     */
+    boolean hasScreenshot();
+
+    /**
+     * Checks whether the screenshot file was created by the page itself and not provided via setScreenshot method,
+     * so that it could be moved to report folder instead of being copied
+     * @return
+     */
+    boolean hasTemporaryScreenshot();
+
     String getTitle();
 
     void switchToFrame(PageElement mainObject);
@@ -58,4 +74,20 @@ public interface Page {
     void switchToParentFrame();
 
     Page createFrameContext(PageElement mainObject);
+
+    /**
+     * Fetches all specified objects from the page in one go so that later calls to getObject
+     * are served from the snapshot without additional requests to the browser.
+     * Implementations which do not benefit from batching may ignore this call
+     * @param objects - a map of object names and their locators
+     */
+    void takeSnapshot(Map<String, Locator> objects);
+
+    /**
+     * Finds all elements for each of specified locators in one go so that later calls to getObjectCount
+     * and getObject with any index of these locators are served without additional requests to the browser.
+     * Implementations which do not benefit from batching may ignore this call
+     * @param locators - locators of multi-objects
+     */
+    void fetchObjectLists(Collection<Locator> locators);
 }
@@ -23,7 +23,11 @@ import static java.lang.String.format;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
-public class Rect {
+import java.io.Serializable;
+
+public class Rect implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private int left;
     private int width;
@@ -0,0 +1,175 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.dump;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.page.AbsentPageElement;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+/**
+ * A page which is loaded from the folder created by page dump (page.json and page.png)
+ * and doesn't need any browser. Page dump only contains visible objects,
+ * so all objects that are missing in it are treated as absent.
+ */
+public class DumpPage implements Page {
+
+    public static final String PAGE_JSON = "page.json";
+    public static final String PAGE_SCREENSHOT = "page.png";
+
+    private PageDump pageDump;
+    private File screenshotFile;
+    private BufferedImage cachedScreenshotImage;
+
+    public DumpPage(PageDump pageDump, File screenshotFile) {
+        this.pageDump = pageDump;
+        this.screenshotFile = screenshotFile;
+    }
+
+    public static DumpPage loadFromFolder(File pageDumpFolder) throws IOException {
+        PageDump pageDump = PageDump.loadFromJson(new File(pageDumpFolder, PAGE_JSON));
+        return new DumpPage(pageDump, new File(pageDumpFolder, PAGE_SCREENSHOT));
+    }
+
+    @Override
+    public PageElement getObject(Locator objectLocator) {
+        return new AbsentPageElement();
+    }
+
+    @Override
+    public PageElement getObject(String objectName, Locator objectLocator) {
+        PageDump.Element element = pageDump.getItems().get(objectName);
+        if (element != null && element.getArea() != null) {
+            return new DumpPageElement(element);
+        }
+        else return new AbsentPageElement();
+    }
+
+    @Override
+    public PageElement getSpecialObject(String objectName) {
+        if ("screen".equals(objectName)) {
+            BufferedImage image = getScreenshotImage();
+            return new DumpPageElement(new PageDump.Element(objectName, new int[]{0, 0, image.getWidth(), image.getHeight()}, ""));
+        }
+        else if ("viewport".equals(objectName)) {
+            if (pageDump.getViewport() == null) {
+                throw new RuntimeException("Page dump doesn't contain viewport size, it should be dumped again to check viewport");
+            }
+            return new DumpPageElement(new PageDump.Element(objectName, pageDump.getViewport(), ""));
+        }
+        else if ("parent".equals(objectName)) {
+            throw new RuntimeException("There is no parent object defined on page");
+        }
+        else return null;
+    }
+
+    /**
+     * Counts objects using the locators stored in page dump.
+     * Returns the biggest stored index, so that invisible objects which were skipped in page dump
+     * do not shift the indices of the visible ones
+     */
+    @Override
+    public int getObjectCount(Locator locator) {
+        String locatorText = locator.prettyString();
+        int count = 0;
+        for (PageDump.Element element : pageDump.getItems().values()) {
+            if (locatorText.equals(element.getLocator()) && element.getIndex() != null) {
+                count = Math.max(count, element.getIndex());
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Page createObjectContextPage(Locator mainObjectLocator) {
+        throw new RuntimeException("Component specs cannot be checked against page dump");
+    }
+
+    @Override
+    public void setScreenshot(File screenshotFile) {
+        if (screenshotFile != null) {
+            this.screenshotFile = screenshotFile;
+            this.cachedScreenshotImage = null;
+        }
+    }
+
+    @Override
+    public BufferedImage getScreenshotImage() {
+        if (this.cachedScreenshotImage == null) {
+            try {
+                cachedScreenshotImage = Rainbow4J.loadImage(createScreenshot().getAbsolutePath());
+            } catch (Exception e) {
+                throw new RuntimeException("Couldn't load screenshot for page dump", e);
+            }
+        }
+        return this.cachedScreenshotImage;
+    }
+
+    @Override
+    public File createScreenshot() {
+        return screenshotFile;
+    }
+
+    @Override
+    public boolean hasScreenshot() {
+        return true;
+    }
+
+    @Override
+    public boolean hasTemporaryScreenshot() {
+        return false;
+    }
+
+    @Override
+    public String getTitle() {
+        return pageDump.getTitle();
+    }
+
+    @Override
+    public void switchToFrame(PageElement mainObject) {
+        throw new RuntimeException("Frames cannot be checked against page dump");
+    }
+
+    @Override
+    public void switchToParentFrame() {
+        throw new RuntimeException("Frames cannot be checked against page dump");
+    }
+
+    @Override
+    public Page createFrameContext(PageElement mainObject) {
+        throw new RuntimeException("Frames cannot be checked against page dump");
+    }
+
+    @Override
+    public void takeSnapshot(Map<String, Locator> objects) {
+    }
+
+    public PageDump getPageDump() {
+        return pageDump;
+    }
+
+    @Override
+    public void fetchObjectLists(Collection<Locator> locators) {
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.dump;
+
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+
+public class DumpPageElement extends PageElement {
+
+    private PageDump.Element element;
+
+    public DumpPageElement(PageDump.Element element) {
+        this.element = element;
+    }
+
+    @Override
+    protected Rect calculateArea() {
+        int[] area = element.getArea();
+        return new Rect(area[0], area[1], area[2], area[3]);
+    }
+
+    @Override
+    public boolean isPresent() {
+        return true;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return true;
+    }
+
+    @Override
+    public int getWidth() {
+        return getArea().getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return getArea().getHeight();
+    }
+
+    @Override
+    public int getLeft() {
+        return getArea().getLeft();
+    }
+
+    @Override
+    public int getTop() {
+        return getArea().getTop();
+    }
+
+    @Override
+    public String getText() {
+        if (element.getText() != null) {
+            return element.getText();
+        }
+        else return "";
+    }
+
+    @Override
+    public String getCssProperty(String cssPropertyName) {
+        return null;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.selenium;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.config.GalenConfig;
+
+import org.apache.commons.io.IOUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads javascript resources which are executed in browser via WebDriver and keeps them in memory.
+ * Functions from common.js are prepended to every script so that scripts share the way they find elements
+ */
+public class BrowserScripts {
+
+    private final static Logger LOG = LoggerFactory.getLogger(BrowserScripts.class);
+
+    /**
+     * Extra time given to WebDriver on top of the timeout which the script waits itself
+     * so that the script could report its result before WebDriver interrupts it
+     */
+    private static final int SCRIPT_TIMEOUT_MARGIN = 5000;
+
+    private static final String COMMON_SCRIPT = "/selenium/common.js";
+
+    private static final Map<String, String> scripts = new HashMap<String, String>();
+
+    public static synchronized String load(String resourcePath) throws IOException {
+        String script = scripts.get(resourcePath);
+        if (script == null) {
+            script = read(COMMON_SCRIPT) + "\n" + read(resourcePath);
+            scripts.put(resourcePath, script);
+        }
+        return script;
+    }
+
+    private static String read(String resourcePath) throws IOException {
+        InputStream stream = BrowserScripts.class.getResourceAsStream(resourcePath);
+        if (stream == null) {
+            throw new IOException("Cannot find script: " + resourcePath);
+        }
+        try {
+            return IOUtils.toString(stream);
+        }
+        finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Executes asynchronous script which waits for at most the given timeout in browser.
+     * Script timeout of WebDriver is changed only for this call and is set back afterwards
+     * to the one defined in config as WebDriver does not allow to read it.
+     * @throws org.openqa.selenium.TimeoutException in case the script did not finish in time
+     */
+    public static Object executeAsync(WebDriver driver, int timeout, String resourcePath, Object... args) throws IOException {
+        String script = load(resourcePath);
+        setScriptTimeout(driver, timeout + SCRIPT_TIMEOUT_MARGIN);
+        try {
+            return ((JavascriptExecutor) driver).executeAsyncScript(script, args);
+        }
+        finally {
+            setScriptTimeout(driver, GalenConfig.getConfig().getScriptTimeout());
+        }
+    }
+
+    private static void setScriptTimeout(WebDriver driver, long timeout) {
+        try {
+            driver.manage().timeouts().setScriptTimeout(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (Exception ex) {
+            LOG.debug("Couldn't change script timeout", ex);
+        }
+    }
+}
@@ -17,33 +17,58 @@ package net.mindengine.galen.page.selenium;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.page.AbsentPageElement;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.reports.model.ArtifactWriter;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.rainbow4j.Rainbow4J;
 
 import org.openqa.selenium.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SeleniumPage implements Page {
 
+    private final static Logger LOG = LoggerFactory.getLogger(SeleniumPage.class);
+
     private WebDriver driver;
     
-    private Map<String, List<PageElement>> cachedElementsList = new HashMap<String, List<PageElement>>();
+    private Map<String, List<WebElement>> cachedFoundElements = new HashMap<String, List<WebElement>>();
     private Map<String, PageElement> cachedPageElements = new HashMap<String, PageElement>();
+    private Map<String, PageElement> snapshotElements = new HashMap<String, PageElement>();
     
     private WebElement objectContext;
     private PageElement parentObject;
 
+    /**
+     * Elements found on the whole document which is shared between page and its object context sub-pages,
+     * so that many components with the same locator do not search for it again
+     */
+    private Map<String, List<WebElement>> cachedContextElements = new HashMap<String, List<WebElement>>();
+
+    /**
+     * The page which owns the screenshot. Sub-pages use the screenshot of their parent
+     * as selenium always takes the screenshot of the whole page regardless of object context or frame
+     */
+    private SeleniumPage screenshotPage;
+
     private BufferedImage cachedScreenshotImage;
     private File cachedScreenshotFile;
+    private Future<File> pendingScreenshotFile;
+    private boolean providedScreenshot = false;
     private int offsetLeft = 0;
     private int offsetTop = 0;
 
@@ -57,6 +82,13 @@ public class SeleniumPage implements Page {
         setObjectContext(objectContextLocator);
     }
 
+    private SeleniumPage(SeleniumPage parentPage, Locator objectContextLocator) {
+        this.driver = parentPage.driver;
+        this.cachedContextElements = parentPage.cachedContextElements;
+        this.screenshotPage = parentPage.getScreenshotPage();
+        setObjectContext(objectContextLocator);
+    }
+
     
     private void setObjectContext(Locator objectContextLocator) {
         if (objectContextLocator != null) {
@@ -65,17 +97,21 @@ public class SeleniumPage implements Page {
                 throw new RuntimeException("Cannot convert locator: " + objectContextLocator.getLocatorType() + " " + objectContextLocator.getLocatorValue());
             }
             
+            List<WebElement> elements = findContextElements(objectContextLocator, by);
+
             int index = objectContextLocator.getIndex();
             if (index > 1) {
                 index = index - 1;
-                List<WebElement> elements = driver.findElements(by);
                 if (index >= elements.size()) {
                     throw new RuntimeException("Incorrect locator for object context. Index out of range");
                 }
                 objectContext = elements.get(index);
             }
+            else if (!elements.isEmpty()) {
+                objectContext = elements.get(0);
+            }
             else {
-                objectContext = driver.findElement(by);
+                throw new NoSuchElementException("Cannot find object context: " + objectContextLocator.prettyString());
             }
 
 
@@ -85,6 +121,20 @@ public class SeleniumPage implements Page {
     }
 
 
+    private List<WebElement> findContextElements(Locator locator, By by) {
+        String key = locator.getLocatorType() + ":" + locator.getLocatorValue();
+        List<WebElement> elements = cachedContextElements.get(key);
+        if (elements == null) {
+            elements = driver.findElements(by);
+            cachedContextElements.put(key, elements);
+        }
+        return elements;
+    }
+
+    private SeleniumPage getScreenshotPage() {
+        return screenshotPage != null ? screenshotPage : this;
+    }
+
     @Override
     public PageElement getObject(Locator objectLocator) {
         return getObject("unnamed", objectLocator);
@@ -92,6 +142,11 @@ public class SeleniumPage implements Page {
 
     @Override
     public PageElement getObject(String objectName, Locator objectLocator) {
+        PageElement snapshotElement = snapshotElements.get(cacheKey(objectName, objectLocator));
+        if (snapshotElement != null) {
+            return snapshotElement;
+        }
+
         int index = objectLocator.getIndex() - 1;
         
         if (index >= 0) {
@@ -103,33 +158,46 @@ public class SeleniumPage implements Page {
     }
 
     private PageElement getWebPageElement(String objectName, Locator objectLocator, int index) {
-        List<PageElement> pageElements = cachedElementsList.get(objectName);
-        
-        if (pageElements == null) {
-            By by = by(objectLocator);
-            if (by == null) {
+        String key = cacheKey(objectName, objectLocator);
+        PageElement pageElement = cachedPageElements.get(key);
+
+        if (pageElement == null) {
+            List<WebElement> webElements = findAllElements(objectLocator);
+            if (webElements == null) {
                 return null;
             }
-            
-            List<WebElement> webElements = driverFindElements(by);
-            
-            pageElements = new LinkedList<PageElement>();
-            int i = 1;
-            for (WebElement webElement : webElements) {
-                pageElements.add(new WebPageElement(objectName, webElement, new Locator(objectLocator.getLocatorType(), objectLocator.getLocatorValue(), i))
-                    .withOffset(offsetLeft, offsetTop));
-                i++;
+
+            if (index < webElements.size()) {
+                pageElement = new WebPageElement(objectName, webElements.get(index),
+                        new Locator(objectLocator.getLocatorType(), objectLocator.getLocatorValue(), index + 1))
+                    .withOffset(offsetLeft, offsetTop);
+            }
+            else {
+                pageElement = new AbsentPageElement();
             }
 
-            cachedElementsList.put(objectName, pageElements);
-        }
-        if (index < pageElements.size()) {
-             return pageElements.get(index);
+            cachedPageElements.put(key, pageElement);
         }
-        else {
-            return new AbsentPageElement();
+        return pageElement;
+    }
+
+    /**
+     * Searches for all elements of locator only once, so that counting multi-objects
+     * and fetching each of them by index share the same result
+     */
+    private List<WebElement> findAllElements(Locator locator) {
+        String key = locatorKey(locator);
+        List<WebElement> webElements = cachedFoundElements.get(key);
+
+        if (webElements == null) {
+            By by = by(locator);
+            if (by == null) {
+                return null;
+            }
+            webElements = driverFindElements(by);
+            cachedFoundElements.put(key, webElements);
         }
-        
+        return webElements;
     }
 
     private List<WebElement> driverFindElements(By by) {
@@ -158,12 +226,13 @@ public class SeleniumPage implements Page {
     
 
     private PageElement getWebPageElement(String objectName, Locator objectLocator) {
-        PageElement pageElement = cachedPageElements.get(objectName);
+        String key = cacheKey(objectName, objectLocator);
+        PageElement pageElement = cachedPageElements.get(key);
         
         if (pageElement == null) {
             pageElement = locatorToElement(objectName, objectLocator);
             
-            cachedPageElements.put(objectName, pageElement);
+            cachedPageElements.put(key, pageElement);
             return pageElement;
         }
         else {
@@ -188,6 +257,17 @@ public class SeleniumPage implements Page {
         return pageElement;
     }
 
+    /**
+     * Page might be reused for different specs in which the same object name could be defined with different locator
+     */
+    private static String cacheKey(String objectName, Locator locator) {
+        return objectName + "|" + locatorKey(locator) + "|" + locator.getIndex();
+    }
+
+    private static String locatorKey(Locator locator) {
+        return locator.getLocatorType() + ":" + locator.getLocatorValue();
+    }
+
     private By by(Locator locator) {
         if ("xpath".equals(locator.getLocatorType())) {
             return By.xpath(locator.getLocatorValue());
@@ -222,33 +302,126 @@ public class SeleniumPage implements Page {
 
     @Override
     public int getObjectCount(Locator locator) {
-        return driverFindElements(by(locator)).size();
+        List<WebElement> webElements = findAllElements(locator);
+        if (webElements != null) {
+            return webElements.size();
+        }
+        return 0;
+    }
+
+    @Override
+    public void fetchObjectLists(Collection<Locator> locators) {
+        List<Locator> fetchedLocators = new ArrayList<Locator>(locators.size());
+        List<List<Object>> jsLocators = new ArrayList<List<Object>>(locators.size());
+        Set<String> uniqueLocators = new HashSet<String>();
+
+        for (Locator locator : locators) {
+            String key = locatorKey(locator);
+            if (by(locator) != null && !cachedFoundElements.containsKey(key) && uniqueLocators.add(key)) {
+                fetchedLocators.add(locator);
+
+                List<Object> jsLocator = new ArrayList<Object>(2);
+                jsLocator.add(locator.getLocatorType());
+                jsLocator.add(locator.getLocatorValue());
+                jsLocators.add(jsLocator);
+            }
+        }
+
+        if (jsLocators.isEmpty()) {
+            return;
+        }
+
+        List<?> results;
+        try {
+            results = (List<?>) ((JavascriptExecutor) driver).executeScript(BrowserScripts.load("/selenium/page-find-all.js"), objectContext, jsLocators);
+        }
+        catch (Exception ex) {
+            LOG.warn("Couldn't fetch object lists, falling back to fetching them one by one", ex);
+            return;
+        }
+
+        if (results == null || results.size() != jsLocators.size()) {
+            LOG.warn("Fetching object lists returned unexpected result, falling back to fetching them one by one");
+            return;
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            List<WebElement> webElements = new ArrayList<WebElement>();
+            for (Object element : (List<?>) results.get(i)) {
+                webElements.add((WebElement) element);
+            }
+            cachedFoundElements.put(locatorKey(fetchedLocators.get(i)), webElements);
+        }
     }
 
     @Override
     public Page createObjectContextPage(Locator objectContextLocator) {
-        return new SeleniumPage(this.driver, objectContextLocator);
+        return new SeleniumPage(this, objectContextLocator);
     }
 
     @Override
     public File createScreenshot() {
+        if (screenshotPage != null) {
+            return screenshotPage.createScreenshot();
+        }
         if (this.cachedScreenshotFile == null) {
-            cachedScreenshotFile = new SeleniumBrowser(driver).createScreenshot();
+            if (pendingScreenshotFile != null) {
+                cachedScreenshotFile = waitForScreenshotFile();
+            }
+            else {
+                cachedScreenshotFile = new SeleniumBrowser(driver).createScreenshot();
+            }
         }
 
         return this.cachedScreenshotFile;
     }
 
+    @Override
+    public boolean hasScreenshot() {
+        if (screenshotPage != null) {
+            return screenshotPage.hasScreenshot();
+        }
+        return this.cachedScreenshotFile != null || this.pendingScreenshotFile != null;
+    }
+
     @Override
     public void setScreenshot(File screenshotFile) {
-        this.cachedScreenshotFile = screenshotFile;
+        if (screenshotFile == null) {
+            return;
+        }
+        if (screenshotPage != null) {
+            screenshotPage.setScreenshot(screenshotFile);
+        }
+        else {
+            this.cachedScreenshotFile = screenshotFile;
+            this.cachedScreenshotImage = null;
+            this.pendingScreenshotFile = null;
+            this.providedScreenshot = true;
+        }
+    }
+
+    @Override
+    public boolean hasTemporaryScreenshot() {
+        if (screenshotPage != null) {
+            return screenshotPage.hasTemporaryScreenshot();
+        }
+        return hasScreenshot() && !providedScreenshot;
     }
 
     @Override
     public BufferedImage getScreenshotImage() {
+        if (screenshotPage != null) {
+            return screenshotPage.getScreenshotImage();
+        }
         if (this.cachedScreenshotImage == null) {
             try {
-                cachedScreenshotImage = Rainbow4J.loadImage(createScreenshot().getAbsolutePath());
+                if (this.cachedScreenshotFile == null) {
+                    // validation works with the raster straight away, the file is only needed for reports
+                    cachedScreenshotImage = new SeleniumBrowser(driver).createScreenshotImage();
+                    pendingScreenshotFile = ArtifactWriter.writeTempImage("screenshot", cachedScreenshotImage);
+                    return cachedScreenshotImage;
+                }
+                cachedScreenshotImage = Rainbow4J.loadImage(cachedScreenshotFile.getAbsolutePath());
             } catch (Exception e) {
                 throw new RuntimeException("Couldn't take screenshot for page", e);
             }
@@ -256,6 +429,30 @@ public class SeleniumPage implements Page {
         return this.cachedScreenshotImage;
     }
 
+    /**
+     * @return screenshot file which is still being written in background
+     * or null in case the screenshot was not taken in memory or its file was already requested
+     */
+    public Future<File> getPendingScreenshotFile() {
+        if (screenshotPage != null) {
+            return screenshotPage.getPendingScreenshotFile();
+        }
+        return pendingScreenshotFile;
+    }
+
+    private File waitForScreenshotFile() {
+        try {
+            return pendingScreenshotFile.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Couldn't save screenshot", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving screenshot", e);
+        } finally {
+            pendingScreenshotFile = null;
+        }
+    }
+
     @Override
     public String getTitle() {
         return driver.getTitle();
@@ -275,6 +472,7 @@ public class SeleniumPage implements Page {
     @Override
     public Page createFrameContext(PageElement frameElement) {
         SeleniumPage framePage = new SeleniumPage(driver);
+        framePage.screenshotPage = getScreenshotPage();
 
         Rect mainObjectArea = frameElement.getArea();
         framePage.setOffset(mainObjectArea.getLeft(), mainObjectArea.getTop());
@@ -283,6 +481,64 @@ public class SeleniumPage implements Page {
         return framePage;
     }
 
+    @Override
+    public void takeSnapshot(Map<String, Locator> objects) {
+        List<String> objectNames = new ArrayList<String>(objects.size());
+        List<Locator> locators = new ArrayList<Locator>(objects.size());
+        List<List<Object>> jsLocators = new ArrayList<List<Object>>(objects.size());
+
+        for (Map.Entry<String, Locator> object : objects.entrySet()) {
+            Locator locator = object.getValue();
+            if (by(locator) != null && !snapshotElements.containsKey(cacheKey(object.getKey(), locator))) {
+                objectNames.add(object.getKey());
+                locators.add(locator);
+
+                List<Object> jsLocator = new ArrayList<Object>(3);
+                jsLocator.add(locator.getLocatorType());
+                jsLocator.add(locator.getLocatorValue());
+                jsLocator.add(locator.getIndex());
+                jsLocators.add(jsLocator);
+            }
+        }
+
+        if (jsLocators.isEmpty()) {
+            return;
+        }
+
+        List<?> results;
+        try {
+            results = (List<?>) ((JavascriptExecutor) driver).executeScript(BrowserScripts.load("/selenium/page-snapshot.js"), objectContext, jsLocators);
+        }
+        catch (Exception ex) {
+            LOG.warn("Couldn't take page snapshot, falling back to fetching elements one by one", ex);
+            return;
+        }
+
+        if (results == null || results.size() != jsLocators.size()) {
+            LOG.warn("Page snapshot returned unexpected result, falling back to fetching elements one by one");
+            return;
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            snapshotElements.put(cacheKey(objectNames.get(i), locators.get(i)), snapshotToElement(objectNames.get(i), locators.get(i), (List<?>) results.get(i)));
+        }
+    }
+
+    private PageElement snapshotToElement(String objectName, Locator locator, List<?> data) {
+        if (data == null) {
+            return new AbsentPageElement();
+        }
+
+        Rect area = new Rect(toInt(data.get(1)), toInt(data.get(2)), toInt(data.get(3)), toInt(data.get(4)));
+        return new WebPageElement(objectName, (WebElement) data.get(0), locator)
+                .withSnapshot(area, Boolean.TRUE.equals(data.get(5)), (String) data.get(6))
+                .withOffset(offsetLeft, offsetTop);
+    }
+
+    private int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
     private void setOffset(int offsetLeft, int offsetTop) {
         this.offsetLeft = offsetLeft;
         this.offsetTop = offsetTop;
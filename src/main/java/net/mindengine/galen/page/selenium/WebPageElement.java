@@ -38,6 +38,25 @@ public class WebPageElement extends PageElement {
     }
 
     private Rect cachedArea = null;
+    private String cachedText = null;
+
+    /**
+     * Fills element caches with the data that was already fetched from browser
+     * so that no further WebDriver calls are needed for area, visibility and text
+     * @param area - not corrected area of element
+     * @param visible
+     * @param text
+     * @return
+     */
+    public WebPageElement withSnapshot(Rect area, boolean visible, String text) {
+        this.cachedArea = area;
+        if (getLocator() != null && getLocator().getCorrections() != null) {
+            this.cachedArea = correctedRect(area, getLocator().getCorrections());
+        }
+        this.cachedVisibility = visible;
+        this.cachedText = text;
+        return this;
+    }
     
     @Override
     public Rect calculateArea() {
@@ -121,6 +140,9 @@ public class WebPageElement extends PageElement {
 
     @Override
     public String getText() {
+        if (cachedText != null) {
+            return cachedText;
+        }
         WebElement webElement = getWebElement();
         if ("input".equals(webElement.getTagName().toLowerCase())) {
             String value = webElement.getAttribute("value");
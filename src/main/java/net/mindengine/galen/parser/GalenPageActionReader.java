@@ -61,6 +61,9 @@ public class GalenPageActionReader {
         else if (args[0].equals("wait")) {
             return waitActionFrom(args);
         }
+        else if (args[0].equals("wait-stable")) {
+            return waitStableActionFrom(args, actionText);
+        }
         else if (args[0].equals("properties")) {
             return propertiesActionFrom(args);
         }
@@ -105,6 +108,7 @@ public class GalenPageActionReader {
         Options options = new Options();
         options.addOption("i", "include", true, "include tags");
         options.addOption("e", "exclude", true, "exclude tags");
+        options.addOption("s", "stable", true, "wait until layout is stable");
         
         org.apache.commons.cli.CommandLineParser parser = new PosixParser();
         
@@ -121,10 +125,13 @@ public class GalenPageActionReader {
                 specs.add(leftoverArgs[i]);
             }
             
+            String stableTimeout = cmd.getOptionValue("s");
+
             return new GalenPageActionCheck()
                 .withSpecs(specs)
                 .withIncludedTags(readTags(cmd.getOptionValue("i")))
-                .withExcludedTags(readTags(cmd.getOptionValue("e")));
+                .withExcludedTags(readTags(cmd.getOptionValue("e")))
+                .withStableTimeout(stableTimeout != null ? parseTimeout(stableTimeout) : null);
         }
         catch (Exception e) {
             throw new SyntaxException(UNKNOWN_LINE, "Couldn't parse: " + originalText, e);
@@ -176,6 +183,44 @@ public class GalenPageActionReader {
         }
     }
 
+    private static GalenPageAction waitStableActionFrom(String[] args, String originalText) {
+        Options options = new Options();
+        options.addOption("f", "frames", true, "Amount of animation frames in which layout should not change");
+
+        org.apache.commons.cli.CommandLineParser parser = new PosixParser();
+
+        try {
+            CommandLine cmd = parser.parse(options, args);
+            String[] leftoverArgs = cmd.getArgs();
+
+            if (leftoverArgs == null || leftoverArgs.length < 3) {
+                throw new SyntaxException(UNKNOWN_LINE, "There are no page specs: " + originalText);
+            }
+
+            List<String> specs = new LinkedList<String>();
+            for (int i = 2; i < leftoverArgs.length; i++) {
+                specs.add(leftoverArgs[i]);
+            }
+
+            String framesText = cmd.getOptionValue("f");
+            Integer frames = null;
+            if (framesText != null) {
+                frames = Integer.parseInt(framesText);
+                if (frames < 1) {
+                    throw new SyntaxException(UNKNOWN_LINE, "Amount of frames should be at least 1: " + framesText);
+                }
+            }
+
+            return new GalenPageActionWaitStable()
+                    .withTimeout(parseTimeout(leftoverArgs[1]))
+                    .withSpecs(specs)
+                    .withFrames(frames);
+        }
+        catch (Exception e) {
+            throw new SyntaxException(UNKNOWN_LINE, "Couldn't parse: " + originalText, e);
+        }
+    }
+
     private static List<String> readTags(String tagsCommaSeparated) {
         if (tagsCommaSeparated != null) {
             String tagsArray[] = tagsCommaSeparated.split(",");
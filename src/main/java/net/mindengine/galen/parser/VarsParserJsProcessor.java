@@ -27,12 +27,26 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class VarsParserJsProcessor {
 
     private final static Logger LOG = LoggerFactory.getLogger(VarsParserJsProcessor.class);
 
+    private static final String SPEC_PROCESSING_SCRIPT_PATH = "/js/GalenSpecProcessing.js";
+    private static final int MAX_COMPILED_SCRIPTS = 1000;
+
+    private static String specProcessingScript;
+
+    @SuppressWarnings("serial")
+    private static final Map<String, Script> compiledScripts = new LinkedHashMap<String, Script>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Script> eldest) {
+            return size() > MAX_COMPILED_SCRIPTS;
+        }
+    };
+
     private final VarsParserJsFunctions jsFunctions;
 
     private Context varsContext;
@@ -45,7 +59,16 @@ public class VarsParserJsProcessor {
         this.varsContext = varsContext;
         this.jsFunctions = jsFunctions;
         this.pageSpecReader = pageSpecReader;
-        initJsProcessor();
+    }
+
+    /**
+     * Javascript scope is created only when it is needed for the first time
+     * so that readers which load compiled specs don't have to initialize it
+     */
+    private void initJsProcessorIfNeeded() {
+        if (scope == null) {
+            initJsProcessor();
+        }
     }
 
     @SuppressWarnings("serial")
@@ -54,7 +77,7 @@ public class VarsParserJsProcessor {
         this.scope = new ImporterTopLevel(cx);
 
         ScriptableObject.putProperty(scope, "_pageSpec", org.mozilla.javascript.Context.javaToJS(pageSpecReader, scope));
-        executeScript(readScriptFromResources(("/js/GalenSpecProcessing.js")));
+        executeScript(getSpecProcessingScript());
 
         if (jsFunctions != null) {
             scope.defineProperty("count", new BaseFunction() {
@@ -119,9 +142,29 @@ public class VarsParserJsProcessor {
         }
     }
 
+    private String getSpecProcessingScript() {
+        synchronized (VarsParserJsProcessor.class) {
+            if (specProcessingScript == null) {
+                specProcessingScript = readScriptFromResources(SPEC_PROCESSING_SCRIPT_PATH);
+            }
+            return specProcessingScript;
+        }
+    }
+
+    private Script compileScript(String script) {
+        synchronized (compiledScripts) {
+            Script compiled = compiledScripts.get(script);
+            if (compiled == null) {
+                compiled = cx.compileString(script, "<cmd>", 1, null);
+                compiledScripts.put(script, compiled);
+            }
+            return compiled;
+        }
+    }
+
     private String executeScript(String script) {
         try {
-            Object returnedObject = cx.evaluateString(scope, script, "<cmd>", 1, null);
+            Object returnedObject = compileScript(script).exec(cx, scope);
             if (returnedObject != null) {
                 if (returnedObject instanceof Double) {
                     return Integer.toString(((Double) returnedObject).intValue());
@@ -137,6 +180,7 @@ public class VarsParserJsProcessor {
     }
 
     public String process(String expression) {
+        initJsProcessorIfNeeded();
         resetAllVariablesFromContext();
         return executeScript(expression);
     }
@@ -176,6 +220,7 @@ public class VarsParserJsProcessor {
             fullPath = contextPath + File.separator + filePath;
         }
 
+        initJsProcessorIfNeeded();
         jsFunctionLoad.load(fullPath, this.cx, this.scope);
     }
 }
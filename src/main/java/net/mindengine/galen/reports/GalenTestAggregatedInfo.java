@@ -42,6 +42,12 @@ public class GalenTestAggregatedInfo {
         this.setTestId(testId);
     }
 
+    public GalenTestAggregatedInfo(String testId, GalenTestInfo test, TestStatistic statistic) {
+        this.setTestInfo(test);
+        this.setStatistic(statistic);
+        this.setTestId(testId);
+    }
+
     
     public boolean getFailed() {
         return testInfo.getException() != null || statistic.getErrors() > 0;
@@ -72,18 +78,34 @@ public class GalenTestAggregatedInfo {
     }
 
     public String getExceptionMessage() {
-        if (testInfo.getException() != null) {
+        if (testInfo.getException() instanceof ReportedException) {
+            return testInfo.getException().getMessage();
+        }
+        else if (testInfo.getException() != null) {
             return ExceptionUtils.getMessage(testInfo.getException());
         }
         return null;
     }
 
     public String getExceptionStacktrace() {
-        if (testInfo.getException() != null) {
+        if (testInfo.getException() instanceof ReportedException) {
+            return ((ReportedException) testInfo.getException()).getStacktrace();
+        }
+        else if (testInfo.getException() != null) {
             return ExceptionUtils.getStackTrace(testInfo.getException());
         }
         return null;
     }
+
+    public String getExceptionClass() {
+        if (testInfo.getException() instanceof ReportedException) {
+            return ((ReportedException) testInfo.getException()).getOriginalClassName();
+        }
+        else if (testInfo.getException() != null) {
+            return testInfo.getException().getClass().getName();
+        }
+        return null;
+    }
     
     public Long getDuration() {
         return testInfo.getEndedAt().getTime() - testInfo.getStartedAt().getTime();
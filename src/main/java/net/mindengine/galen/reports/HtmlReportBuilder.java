@@ -17,11 +17,13 @@ package net.mindengine.galen.reports;
 
 import net.mindengine.galen.reports.json.JsonReportBuilder;
 import net.mindengine.galen.reports.json.ReportOverview;
+import net.mindengine.galen.reports.model.FileTempStorage;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
 import java.lang.reflect.Field;
+import java.util.LinkedList;
 import java.util.List;
 
 public class HtmlReportBuilder {
@@ -36,29 +38,53 @@ public class HtmlReportBuilder {
     };
 
 
+    private String overviewTemplate;
+    private String testReportTemplate;
+
     public void build(List<GalenTestInfo> tests, String reportFolderPath) throws IOException {
         makeSureReportFolderExists(reportFolderPath);
 
         JsonReportBuilder jsonBuilder = new JsonReportBuilder();
         ReportOverview reportOverview = jsonBuilder.createReportOverview(tests);
 
-        String overviewTemplate = IOUtils.toString(getClass().getResourceAsStream("/html-report/report.tpl.html"));
-        String testReportTemplate = IOUtils.toString(getClass().getResourceAsStream("/html-report/report-test.tpl.html"));
-
+        List<FileTempStorage> storages = new LinkedList<FileTempStorage>();
         for (GalenTestAggregatedInfo aggregatedInfo : reportOverview.getTests()) {
             String testReportJson = jsonBuilder.exportTestReportToJsonString(aggregatedInfo);
-            FileUtils.writeStringToFile(new File(reportFolderPath + File.separator + aggregatedInfo.getTestId() + ".html"),
-                    testReportTemplate
-                            .replace("##REPORT-TEST-NAME##", aggregatedInfo.getTestInfo().getName())
-                            .replace("##REPORT-DATA##", testReportJson));
+            writeTestReport(reportFolderPath, aggregatedInfo.getTestId(), aggregatedInfo.getTestInfo().getName(), testReportJson);
+
+            storages.add(aggregatedInfo.getTestInfo().getReport().getFileStorage());
+        }
+        FileTempStorage.transferAllFiles(storages, new File(reportFolderPath));
 
-            FileUtils.writeStringToFile(new File(reportFolderPath + File.separator + aggregatedInfo.getTestId() + ".json"),
-                    testReportJson);
+        writeReportOverview(reportFolderPath, jsonBuilder.exportReportOverviewToJsonAsString(reportOverview));
+    }
 
-            aggregatedInfo.getTestInfo().getReport().getFileStorage().copyAllFilesTo(new File(reportFolderPath));
+    /**
+     * Writes html and json pages for a single test from its already exported json report
+     */
+    public void writeTestReport(String reportFolderPath, String testId, String testName, String testReportJson) throws IOException {
+        if (testReportTemplate == null) {
+            testReportTemplate = IOUtils.toString(getClass().getResourceAsStream("/html-report/report-test.tpl.html"));
         }
 
-        String overviewJson = jsonBuilder.exportReportOverviewToJsonAsString(reportOverview);
+        FileUtils.writeStringToFile(new File(reportFolderPath + File.separator + testId + ".html"),
+                testReportTemplate
+                        .replace("##REPORT-TEST-NAME##", testName)
+                        .replace("##REPORT-DATA##", testReportJson));
+
+        FileUtils.writeStringToFile(new File(reportFolderPath + File.separator + testId + ".json"),
+                testReportJson);
+    }
+
+    /**
+     * Writes the overview page from its already exported json together with all static resources of html report
+     */
+    public void writeReportOverview(String reportFolderPath, String overviewJson) throws IOException {
+        makeSureReportFolderExists(reportFolderPath);
+
+        if (overviewTemplate == null) {
+            overviewTemplate = IOUtils.toString(getClass().getResourceAsStream("/html-report/report.tpl.html"));
+        }
 
         FileUtils.writeStringToFile(new File(reportFolderPath + File.separator + "report.html"),
                 overviewTemplate.replace("##REPORT-DATA##", overviewJson));
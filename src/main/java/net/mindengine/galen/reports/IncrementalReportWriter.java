@@ -0,0 +1,95 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.reports;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import net.mindengine.galen.reports.json.JsonReportBuilder;
+import net.mindengine.galen.reports.json.ReportOverview;
+import net.mindengine.galen.reports.model.FileTempStorage;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Writes html and json report of each test as soon as the test is finished and releases its report tree,
+ * so that only the overview of all tests is kept in memory till the end of test suite.
+ */
+public class IncrementalReportWriter {
+
+    private static final String REPORT_OVERVIEW_FILE = "report.json";
+
+    private final String htmlReportPath;
+    private final String jsonReportPath;
+
+    private final JsonReportBuilder jsonReportBuilder = new JsonReportBuilder();
+    private final HtmlReportBuilder htmlReportBuilder = new HtmlReportBuilder();
+    private final TestIdGenerator testIdGenerator = new TestIdGenerator();
+    private final ReportOverview reportOverview = new ReportOverview();
+
+    public IncrementalReportWriter(String htmlReportPath, String jsonReportPath) {
+        this.htmlReportPath = htmlReportPath;
+        this.jsonReportPath = jsonReportPath;
+    }
+
+    public void onTestCompleted(GalenTestInfo testInfo) throws IOException {
+        GalenTestAggregatedInfo aggregatedInfo = register(testInfo);
+        String testId = aggregatedInfo.getTestId();
+
+        TestReport report = testInfo.getReport();
+        if (report == null) {
+            return;
+        }
+
+        String testReportJson = jsonReportBuilder.exportTestReportToJsonString(aggregatedInfo);
+
+        if (htmlReportPath != null) {
+            FileUtils.forceMkdir(new File(htmlReportPath));
+            htmlReportBuilder.writeTestReport(htmlReportPath, testId, testInfo.getName(), testReportJson);
+            FileTempStorage.transferAllFiles(Collections.singletonList(report.getFileStorage()), new File(htmlReportPath));
+        }
+        if (jsonReportPath != null) {
+            FileUtils.forceMkdir(new File(jsonReportPath));
+            FileUtils.writeStringToFile(new File(jsonReportPath + File.separator + testId + ".json"), testReportJson);
+            FileTempStorage.transferAllFiles(Collections.singletonList(report.getFileStorage()), new File(jsonReportPath));
+        }
+
+        report.getFileStorage().cleanup();
+        report.release();
+    }
+
+    private synchronized GalenTestAggregatedInfo register(GalenTestInfo testInfo) {
+        String testId = testIdGenerator.generateTestId(testInfo.getName());
+        GalenTestAggregatedInfo aggregatedInfo = new GalenTestAggregatedInfo(testId, testInfo);
+        reportOverview.add(aggregatedInfo);
+        return aggregatedInfo;
+    }
+
+    /**
+     * Writes the overview of all finished tests
+     */
+    public synchronized void finish() throws IOException {
+        String overviewJson = jsonReportBuilder.exportReportOverviewToJsonAsString(reportOverview);
+
+        if (htmlReportPath != null) {
+            htmlReportBuilder.writeReportOverview(htmlReportPath, overviewJson);
+        }
+        if (jsonReportPath != null) {
+            FileUtils.writeStringToFile(new File(jsonReportPath + File.separator + REPORT_OVERVIEW_FILE), overviewJson);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.reports;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import net.mindengine.galen.reports.json.JsonReportBuilder;
+import net.mindengine.galen.reports.json.ReportOverview;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import freemarker.template.TemplateException;
+
+/**
+ * Combines json reports of several shards into a single json, html or testng report.
+ * Test ids are regenerated and attachment files of each shard get a unique prefix
+ * so that they can not override each other in the merged report folder.
+ */
+public class ReportMerger {
+
+    private final static Logger LOG = LoggerFactory.getLogger(ReportMerger.class);
+
+    private static final String REPORT_OVERVIEW_FILE = "report.json";
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final TestIdGenerator testIdGenerator = new TestIdGenerator();
+    private final ReportOverview reportOverview = new ReportOverview();
+    private final Map<String, JsonNode> testReports = new HashMap<String, JsonNode>();
+    private final Map<String, File> attachments = new HashMap<String, File>();
+    private int shardsAmount = 0;
+
+    public ReportMerger add(File jsonReportFolder) throws IOException {
+        File overviewFile = new File(jsonReportFolder, REPORT_OVERVIEW_FILE);
+        if (!overviewFile.isFile()) {
+            throw new FileNotFoundException("Cannot find json report: " + overviewFile.getAbsolutePath());
+        }
+
+        shardsAmount++;
+        String attachmentPrefix = "shard" + shardsAmount + "-";
+
+        JsonNode overview = jsonMapper.readTree(overviewFile);
+        for (JsonNode testNode : overview.path("tests")) {
+            String oldTestId = testNode.path("testId").asText();
+            File testReportFile = new File(jsonReportFolder, oldTestId + ".json");
+
+            if (testReportFile.isFile()) {
+                String testId = testIdGenerator.generateTestId(testNode.path("name").asText());
+
+                JsonNode testReport = renameAttachments(jsonMapper.readTree(testReportFile), jsonReportFolder, attachmentPrefix);
+                if (testReport instanceof ObjectNode) {
+                    ((ObjectNode) testReport).put("testId", testId);
+                }
+
+                testReports.put(testId, testReport);
+                reportOverview.add(new GalenTestAggregatedInfo(testId, restoreTestInfo(testNode), restoreStatistic(testNode)));
+            }
+            else {
+                LOG.warn("Skipping test \"" + testNode.path("name").asText() + "\" as its report is missing: " + testReportFile.getAbsolutePath());
+            }
+        }
+        return this;
+    }
+
+    public List<GalenTestAggregatedInfo> getTests() {
+        return reportOverview.getTests();
+    }
+
+    public void buildJsonReport(String reportPath) throws IOException {
+        FileUtils.forceMkdir(new File(reportPath));
+
+        for (GalenTestAggregatedInfo aggregatedInfo : reportOverview.getTests()) {
+            FileUtils.writeStringToFile(new File(reportPath + File.separator + aggregatedInfo.getTestId() + ".json"),
+                    exportTestReport(aggregatedInfo.getTestId()));
+        }
+        FileUtils.writeStringToFile(new File(reportPath + File.separator + REPORT_OVERVIEW_FILE),
+                new JsonReportBuilder().exportReportOverviewToJsonAsString(reportOverview));
+        copyAttachmentsTo(reportPath);
+    }
+
+    public void buildHtmlReport(String reportPath) throws IOException {
+        HtmlReportBuilder htmlReportBuilder = new HtmlReportBuilder();
+        FileUtils.forceMkdir(new File(reportPath));
+
+        for (GalenTestAggregatedInfo aggregatedInfo : reportOverview.getTests()) {
+            htmlReportBuilder.writeTestReport(reportPath, aggregatedInfo.getTestId(),
+                    aggregatedInfo.getTestInfo().getName(), exportTestReport(aggregatedInfo.getTestId()));
+        }
+        htmlReportBuilder.writeReportOverview(reportPath, new JsonReportBuilder().exportReportOverviewToJsonAsString(reportOverview));
+        copyAttachmentsTo(reportPath);
+    }
+
+    public void buildTestNgReport(String reportPath) throws IOException, TemplateException {
+        new TestNgReportBuilder().buildFromAggregatedInfo(reportOverview.getTests(), reportPath);
+    }
+
+    private String exportTestReport(String testId) throws IOException {
+        return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(testReports.get(testId));
+    }
+
+    private void copyAttachmentsTo(String reportPath) throws IOException {
+        for (Map.Entry<String, File> attachment : attachments.entrySet()) {
+            FileUtils.copyFile(attachment.getValue(), new File(reportPath, attachment.getKey()));
+        }
+    }
+
+    /**
+     * Any string value in test report which names a file from the shard folder is treated as an attachment
+     */
+    private JsonNode renameAttachments(JsonNode node, File jsonReportFolder, String attachmentPrefix) {
+        if (node.isTextual()) {
+            String fileName = node.asText();
+            if (isAttachment(jsonReportFolder, fileName)) {
+                String newFileName = attachmentPrefix + fileName;
+                attachments.put(newFileName, new File(jsonReportFolder, fileName));
+                return jsonMapper.getNodeFactory().textNode(newFileName);
+            }
+        }
+        else if (node.isArray()) {
+            ArrayNode arrayNode = (ArrayNode) node;
+            for (int i = 0; i < arrayNode.size(); i++) {
+                arrayNode.set(i, renameAttachments(arrayNode.get(i), jsonReportFolder, attachmentPrefix));
+            }
+        }
+        else if (node.isObject()) {
+            ObjectNode objectNode = (ObjectNode) node;
+            Iterator<Map.Entry<String, JsonNode>> fields = objectNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(renameAttachments(field.getValue(), jsonReportFolder, attachmentPrefix));
+            }
+        }
+        return node;
+    }
+
+    private boolean isAttachment(File jsonReportFolder, String fileName) {
+        if (fileName.isEmpty() || fileName.contains("/") || fileName.contains("\\") || fileName.endsWith(".json")) {
+            return false;
+        }
+        return new File(jsonReportFolder, fileName).isFile();
+    }
+
+    private GalenTestInfo restoreTestInfo(JsonNode testNode) {
+        List<String> groups = null;
+        if (testNode.path("groups").isArray()) {
+            groups = new LinkedList<String>();
+            for (JsonNode group : testNode.path("groups")) {
+                groups.add(group.asText());
+            }
+        }
+
+        GalenTestInfo testInfo = GalenTestInfo.fromString(testNode.path("name").asText(), groups);
+        testInfo.setStartedAt(new Date(testNode.path("startedAt").asLong()));
+        testInfo.setEndedAt(new Date(testNode.path("endedAt").asLong()));
+
+        if (testNode.hasNonNull("exceptionMessage") || testNode.hasNonNull("exceptionStacktrace")) {
+            String exceptionClass = testNode.hasNonNull("exceptionClass")
+                    ? testNode.path("exceptionClass").asText() : ReportedException.class.getName();
+            testInfo.setException(new ReportedException(exceptionClass,
+                    testNode.path("exceptionMessage").asText(),
+                    testNode.path("exceptionStacktrace").asText()));
+        }
+        return testInfo;
+    }
+
+    private TestStatistic restoreStatistic(JsonNode testNode) {
+        JsonNode statisticNode = testNode.path("statistic");
+        TestStatistic statistic = new TestStatistic();
+        statistic.setPassed(statisticNode.path("passed").asInt());
+        statistic.setErrors(statisticNode.path("errors").asInt());
+        statistic.setWarnings(statisticNode.path("warnings").asInt());
+        statistic.setTotal(statisticNode.path("total").asInt());
+        return statistic;
+    }
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.reports;
+
+/**
+ * Stands in for an exception which was thrown in another run and is only known from its report,
+ * so that it can be reported again with its original class name, message and stacktrace
+ */
+public class ReportedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String originalClassName;
+    private final String stacktrace;
+
+    public ReportedException(String originalClassName, String message, String stacktrace) {
+        super(message);
+        this.originalClassName = originalClassName;
+        this.stacktrace = stacktrace;
+    }
+
+    public String getOriginalClassName() {
+        return originalClassName;
+    }
+
+    public String getStacktrace() {
+        return stacktrace;
+    }
+}
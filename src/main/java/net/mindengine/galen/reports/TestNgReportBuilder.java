@@ -42,10 +42,10 @@ public class TestNgReportBuilder {
             aggregatedTests.add(aggregatedInfo);
         }
         
-        exportTesngReport(aggregatedTests, reportPath);
+        buildFromAggregatedInfo(aggregatedTests, reportPath);
     }
 
-    private void exportTesngReport(List<GalenTestAggregatedInfo> tests, String reportPath) throws IOException, TemplateException {
+    public void buildFromAggregatedInfo(List<GalenTestAggregatedInfo> tests, String reportPath) throws IOException, TemplateException {
         File file = new File(reportPath);
         makeSurePathExists(file);
         file.createNewFile();
@@ -35,6 +35,8 @@ public class TestReport {
 
     private TestReportNode rootNode = new TestReportNode(fileStorage);
     private TestReportNode currentNode = rootNode;
+
+    private TestStatistic releasedStatistic;
     
     public TestReportNode info(String name) {
         TestReportNode node = new TestReportNode(fileStorage, name, TestReportNode.Status.INFO);
@@ -100,9 +102,22 @@ public class TestReport {
     }
 
     public TestStatistic fetchStatistic() {
+        if (releasedStatistic != null) {
+            return releasedStatistic;
+        }
         return rootNode.fetchStatistic(new TestStatistic());
     }
 
+    /**
+     * Drops all report nodes keeping only the statistic of the report.
+     * Should be used when the report was already written to disk
+     */
+    public void release() {
+        releasedStatistic = fetchStatistic();
+        rootNode = new TestReportNode(fileStorage);
+        currentNode = rootNode;
+    }
+
 
     public FileTempStorage getFileStorage() {
         return fileStorage;
@@ -22,10 +22,12 @@ import net.mindengine.galen.reports.GalenTestAggregatedInfo;
 import net.mindengine.galen.reports.GalenTestInfo;
 import net.mindengine.galen.reports.TestIdGenerator;
 import net.mindengine.galen.reports.TestReport;
+import net.mindengine.galen.reports.model.FileTempStorage;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -48,21 +50,19 @@ public class JsonReportBuilder {
     public void build(List<GalenTestInfo> testInfos, String reportPath) throws IOException {
         ReportOverview reportOverview = createReportOverview(testInfos);
 
+        List<FileTempStorage> storages = new LinkedList<FileTempStorage>();
         for (GalenTestAggregatedInfo aggregatedInfo : reportOverview.getTests()) {
             exportTestReportToJson(new JsonTestReport(aggregatedInfo.getTestId(), aggregatedInfo.getTestInfo()), reportPath);
-            moveAllReportFiles(aggregatedInfo.getTestInfo().getReport(), reportPath);
+            TestReport report = aggregatedInfo.getTestInfo().getReport();
+            if (report != null && report.getFileStorage() != null) {
+                storages.add(report.getFileStorage());
+            }
         }
+        FileTempStorage.transferAllFiles(storages, new File(reportPath));
 
         exportReportOverviewToJson(reportOverview, reportPath);
     }
 
-
-    private void moveAllReportFiles(TestReport report, String reportPath) throws IOException {
-        if (report != null && report.getFileStorage() != null) {
-            report.getFileStorage().copyAllFilesTo(new File(reportPath));
-        }
-    }
-
     public ReportOverview createReportOverview(List<GalenTestInfo> testInfos) {
         ReportOverview reportOverview = new ReportOverview();
         for (GalenTestInfo testInfo : testInfos) {
@@ -0,0 +1,120 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.reports.model;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes report artifacts (e.g. screenshots and image comparison maps) in background
+ * so that tests do not wait for PNG compression.
+ * The queue is bounded: once it is full the calling thread writes the file itself
+ */
+public class ArtifactWriter {
+
+    private static final int QUEUE_SIZE = 32;
+
+    private static ThreadPoolExecutor executor;
+
+    private static File reportDir;
+
+    private ArtifactWriter() {
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            int threads = GalenConfig.getConfig().getArtifactWriterThreads();
+            if (threads < 1) {
+                return null;
+            }
+
+            final AtomicInteger threadNumber = new AtomicInteger(0);
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "galen-artifacts-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * Sets the folder of the final report so that artifacts could be written there straight away
+     * instead of being copied from temp files once the tests are finished
+     */
+    public static synchronized void setReportDir(File dir) {
+        reportDir = dir;
+    }
+
+    public static synchronized File getReportDir() {
+        return reportDir;
+    }
+
+    public static Future<File> writeTempImage(final String prefix, final BufferedImage image) {
+        return submit(new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                File file = File.createTempFile(prefix, ".png");
+                Rainbow4J.saveImage(image, file);
+                return file;
+            }
+        });
+    }
+
+    public static Future<File> writeImage(final File file, final BufferedImage image) {
+        return submit(new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.exists()) {
+                    parent.mkdirs();
+                }
+                Rainbow4J.saveImage(image, file);
+                return file;
+            }
+        });
+    }
+
+    private static Future<File> submit(Callable<File> task) {
+        ThreadPoolExecutor executor = getExecutor();
+        if (executor != null) {
+            return executor.submit(task);
+        }
+        else {
+            FutureTask<File> futureTask = new FutureTask<File>(task);
+            futureTask.run();
+            return futureTask;
+        }
+    }
+}
@@ -16,27 +16,79 @@
 package net.mindengine.galen.reports.model;
 
 import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Created by ishubin on 2/17/15.
  */
 public class FileTempStorage {
 
+    private final static Logger LOG = LoggerFactory.getLogger(FileTempStorage.class);
+
     private final String storageName;
     private Map<String, File> files = new HashMap<String, File>();
+    private Map<String, Future<File>> pendingFiles = new HashMap<String, Future<File>>();
+    private Set<String> filesInReportDir = new HashSet<String>();
+    private Set<String> temporaryFiles = new HashSet<String>();
+    private List<File> duplicateFiles = new LinkedList<File>();
     private List<FileTempStorage> childStorages = new LinkedList<FileTempStorage>();
 
     private static long _uniqueId = 0;
 
+    private static final int TRANSFER_THREADS = 4;
+
+    /**
+     * Unique names of registered files by their content hash and file name.
+     * Shared only between storages of the same test report
+     */
+    private final Map<String, String> namesByContent;
+
+    /**
+     * Unique names of files which are still being written, shared the same way as names by content
+     */
+    private final Map<Future<File>, String> namesByPendingFile;
+
     public FileTempStorage(String storageName) {
+        this(storageName, new HashMap<String, String>(), new IdentityHashMap<Future<File>, String>());
+    }
+
+    private FileTempStorage(String storageName, Map<String, String> namesByContent, Map<Future<File>, String> namesByPendingFile) {
         this.storageName = storageName;
+        this.namesByContent = namesByContent;
+        this.namesByPendingFile = namesByPendingFile;
+    }
+
+    /**
+     * Creates a storage for another part of the same report, e.g. for the layout report of another check.
+     * Files with the same content which are registered in both storages get the same name
+     */
+    public FileTempStorage createStorageWithSharedNames(String storageName) {
+        return new FileTempStorage(storageName, namesByContent, namesByPendingFile);
     }
 
     private synchronized static long getUniqueId() {
@@ -44,28 +96,298 @@ public class FileTempStorage {
         return _uniqueId;
     }
 
-    public String registerFile(String fileName, File file) {
+    /**
+     * Registers a file for report. Files with the same name and content, e.g. the same screenshot
+     * attached for several checks or test retries, get the same unique name so that report keeps only one copy of it
+     */
+    public synchronized String registerFile(String fileName, File file) {
+        String uniqueName = findNameByContent(fileName, file);
+
+        File registeredFile = files.get(uniqueName);
+        if (registeredFile == null) {
+            files.put(uniqueName, file);
+        }
+        else if (!registeredFile.equals(file)) {
+            duplicateFiles.add(file);
+        }
+        return uniqueName;
+    }
+
+    private String findNameByContent(String fileName, File file) {
+        String contentKey;
+        try {
+            contentKey = calculateHash(file) + "-" + fileName;
+        } catch (IOException e) {
+            LOG.trace("Couldn't calculate hash of " + file.getAbsolutePath(), e);
+            return storageName + "-" + getUniqueId() + "-" + fileName;
+        }
+
+        synchronized (namesByContent) {
+            String uniqueName = namesByContent.get(contentKey);
+            if (uniqueName == null) {
+                uniqueName = storageName + "-" + getUniqueId() + "-" + fileName;
+                namesByContent.put(contentKey, uniqueName);
+            }
+            return uniqueName;
+        }
+    }
+
+    private static String calculateHash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        FileInputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[65536];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Registers a file which was created by Galen only for this report,
+     * so it can be moved to report folder instead of being copied
+     */
+    public synchronized String registerTempFile(String fileName, File file) {
+        String uniqueName = registerFile(fileName, file);
+        if (file.equals(files.get(uniqueName))) {
+            temporaryFiles.add(uniqueName);
+        }
+        return uniqueName;
+    }
+
+    /**
+     * Registers an image which is encoded to png in background.
+     * If the report folder is already known the image is written there directly
+     */
+    public synchronized String registerImage(String fileName, BufferedImage image) {
         String uniqueName = storageName + "-" + getUniqueId() + "-" + fileName;
-        files.put(uniqueName, file);
+
+        File reportDir = ArtifactWriter.getReportDir();
+        if (reportDir != null) {
+            pendingFiles.put(uniqueName, ArtifactWriter.writeImage(new File(reportDir, uniqueName), image));
+            filesInReportDir.add(uniqueName);
+        }
+        else {
+            pendingFiles.put(uniqueName, ArtifactWriter.writeTempImage(storageName, image));
+            temporaryFiles.add(uniqueName);
+        }
         return uniqueName;
     }
 
+    /**
+     * Registers a temporary file which is still being written in background, e.g. a screenshot
+     * which is encoded while the page is validated. It is waited for only once report files are needed
+     */
+    public synchronized String registerPendingTempFile(String fileName, Future<File> file) {
+        String uniqueName;
+        synchronized (namesByPendingFile) {
+            uniqueName = namesByPendingFile.get(file);
+            if (uniqueName == null) {
+                uniqueName = storageName + "-" + getUniqueId() + "-" + fileName;
+                namesByPendingFile.put(file, uniqueName);
+            }
+        }
 
-    public Map<String, File> getFiles() {
+        pendingFiles.put(uniqueName, file);
+        temporaryFiles.add(uniqueName);
+        return uniqueName;
+    }
+
+    public synchronized Map<String, File> getFiles() {
+        try {
+            waitForPendingFiles();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
         return files;
     }
 
+    private synchronized void waitForPendingFiles() throws IOException {
+        try {
+            for (Map.Entry<String, Future<File>> entry : pendingFiles.entrySet()) {
+                try {
+                    files.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    throw new IOException("Couldn't write " + entry.getKey(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing report files", e);
+        } finally {
+            pendingFiles.clear();
+        }
+    }
+
     public void copyAllFilesTo(File dir) throws IOException {
+        transferAllFiles(Collections.singletonList(this), dir);
+    }
+
+    /**
+     * Puts files of all given storages and their child storages into the report folder.
+     * Temporary files which were created by Galen are moved, the rest is copied.
+     * Files sharing the same source are handled by the same thread, different sources are transferred in parallel.
+     * Storages which refer to moved files are updated, so they should all be transferred in the same call
+     */
+    public static void transferAllFiles(Collection<FileTempStorage> storages, File dir) throws IOException {
+        Map<File, List<FileTransfer>> transfersBySource = new LinkedHashMap<File, List<FileTransfer>>();
+        Set<File> destinations = new HashSet<File>();
+        for (FileTempStorage storage : storages) {
+            storage.collectTransfers(dir, transfersBySource, destinations);
+        }
+
+        if (transfersBySource.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(TRANSFER_THREADS, transfersBySource.size()));
+        try {
+            List<Future<Void>> results = new LinkedList<Future<Void>>();
+            for (final List<FileTransfer> transfers : transfersBySource.values()) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        transferFromSameSource(transfers);
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Couldn't transfer report files", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while transferring report files", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (List<FileTransfer> transfers : transfersBySource.values()) {
+            for (FileTransfer transfer : transfers) {
+                if (transfer.relocated) {
+                    transfer.storage.fileRelocated(transfer.name, transfer.destination);
+                }
+            }
+        }
+    }
+
+    private synchronized void collectTransfers(File dir, Map<File, List<FileTransfer>> transfersBySource, Set<File> destinations) throws IOException {
+        waitForPendingFiles();
+
         for (Map.Entry<String, File> entry : files.entrySet()) {
-            FileUtils.copyFile(entry.getValue(), new File(dir.getAbsolutePath() + File.separator + entry.getKey()));
+            File source = entry.getValue().getCanonicalFile();
+            File destination = new File(dir.getAbsolutePath() + File.separator + entry.getKey()).getCanonicalFile();
+
+            if (!destination.equals(source) && destinations.add(destination)) {
+                List<FileTransfer> transfers = transfersBySource.get(source);
+                if (transfers == null) {
+                    transfers = new LinkedList<FileTransfer>();
+                    transfersBySource.put(source, transfers);
+                }
+                transfers.add(new FileTransfer(this, entry.getKey(), source, destination, temporaryFiles.contains(entry.getKey())));
+            }
         }
 
         for (FileTempStorage storage : childStorages) {
-            storage.copyAllFilesTo(dir);
+            storage.collectTransfers(dir, transfersBySource, destinations);
         }
     }
 
-    public void registerStorage(FileTempStorage fileStorage) {
+    private synchronized void fileRelocated(String name, File destination) {
+        files.put(name, destination);
+        temporaryFiles.remove(name);
+        filesInReportDir.add(name);
+    }
+
+    private static void transferFromSameSource(List<FileTransfer> transfers) throws IOException {
+        File current = transfers.get(0).source;
+        boolean moved = false;
+
+        // a file which was registered by someone else as well should stay in its place
+        boolean canMove = true;
+        for (FileTransfer transfer : transfers) {
+            canMove = canMove && transfer.temporary;
+        }
+
+        for (FileTransfer transfer : transfers) {
+            File parent = transfer.destination.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+
+            if (!moved && canMove && current.renameTo(transfer.destination)) {
+                current = transfer.destination;
+                moved = true;
+            }
+            else if (!current.equals(transfer.destination)) {
+                transferFile(current, transfer.destination);
+            }
+            transfer.relocated = moved;
+        }
+    }
+
+    private static void transferFile(File source, File destination) throws IOException {
+        FileInputStream in = new FileInputStream(source);
+        try {
+            FileOutputStream out = new FileOutputStream(destination);
+            try {
+                FileChannel inChannel = in.getChannel();
+                FileChannel outChannel = out.getChannel();
+                long size = inChannel.size();
+                long position = 0;
+                while (position < size) {
+                    position += inChannel.transferTo(position, size - position, outChannel);
+                }
+            }
+            finally {
+                out.close();
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    private static class FileTransfer {
+        private final FileTempStorage storage;
+        private final String name;
+        private final File source;
+        private final File destination;
+        private final boolean temporary;
+        private boolean relocated = false;
+
+        private FileTransfer(FileTempStorage storage, String name, File source, File destination, boolean temporary) {
+            this.storage = storage;
+            this.name = name;
+            this.source = source;
+            this.destination = destination;
+            this.temporary = temporary;
+        }
+    }
+
+    public synchronized void registerStorage(FileTempStorage fileStorage) {
         this.childStorages.add(fileStorage);
     }
 
@@ -74,16 +396,31 @@ public class FileTempStorage {
      * IMPORTANT! Use this call only in the end
      * when you are sure you don't need report files anymore
      */
-    public void cleanup() {
+    public synchronized void cleanup() {
         if (this.childStorages != null) {
             for (FileTempStorage storage : this.childStorages) {
                 storage.cleanup();
             }
         }
 
-        for (File file : this.files.values()) {
+        try {
+            waitForPendingFiles();
+        } catch (IOException e) {
+            LOG.trace("Some of report files were not written", e);
+        }
+
+        for (Map.Entry<String, File> entry : this.files.entrySet()) {
+            // files written straight into report folder are not temporary
+            if (!filesInReportDir.contains(entry.getKey())) {
+                FileUtils.deleteQuietly(entry.getValue());
+            }
+        }
+        for (File file : this.duplicateFiles) {
             FileUtils.deleteQuietly(file);
         }
         this.files.clear();
+        this.filesInReportDir.clear();
+        this.temporaryFiles.clear();
+        this.duplicateFiles.clear();
     }
 }
@@ -18,7 +18,6 @@ package net.mindengine.galen.reports.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import net.mindengine.galen.validation.ValidationResult;
-import net.mindengine.rainbow4j.Rainbow4J;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -28,6 +27,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 public class LayoutReport {
     
@@ -50,7 +50,15 @@ public class LayoutReport {
      Once the HTML or JSON report is about to be rendered - it will copy those files to the report folder.
      */
     @JsonIgnore
-    private FileTempStorage fileStorage = new FileTempStorage("layout");
+    private FileTempStorage fileStorage;
+
+    public LayoutReport() {
+        this(new FileTempStorage("layout"));
+    }
+
+    public LayoutReport(FileTempStorage fileStorage) {
+        this.fileStorage = fileStorage;
+    }
 
 
     public String getTitle() {
@@ -139,16 +147,13 @@ public class LayoutReport {
     }
 
     /**
-     * Saves image in temporary png file and generates a name for it.
+     * Saves image in png file in background and generates a name for it.
      * @param prefix
      * @param image
      * @return
      */
     public String registerImageFile(String prefix, BufferedImage image) throws IOException {
-        File file = File.createTempFile(prefix, ".png");
-        Rainbow4J.saveImage(image, file);
-
-        return fileStorage.registerFile(prefix + ".png", file);
+        return fileStorage.registerImage(prefix + ".png", image);
     }
 
 
@@ -156,4 +161,12 @@ public class LayoutReport {
         return fileStorage.registerFile(fileName, file);
 
     }
+
+    public String registerPendingTempFile(String fileName, Future<File> file) {
+        return fileStorage.registerPendingTempFile(fileName, file);
+    }
+
+    public String registerTempFile(String fileName, File file) {
+        return fileStorage.registerTempFile(fileName, file);
+    }
 }
@@ -18,6 +18,7 @@ package net.mindengine.galen.runner;
 import static java.lang.Integer.parseInt;
 
 import java.awt.Dimension;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -56,6 +57,9 @@ public class GalenArguments {
     private String jsonReport;
     private List<String> groups;
     private List<String> excludedGroups;
+    private String shard;
+    private String shardTimings;
+    private String properties;
 
     public GalenArguments withAction(String action) {
         this.setAction(action);
@@ -164,6 +168,9 @@ public class GalenArguments {
         options.addOption("H", "max-height", true, "Maximum height for page dump");
         options.addOption("G", "groups", true, "Test groups");
         options.addOption("Q", "excluded-groups", true, "Excluded test groups");
+        options.addOption("S", "shard", true, "Part of tests to run, e.g. 3/8");
+        options.addOption("T", "shard-timings", true, "Test durations file shared by all shards to balance them");
+        options.addOption("P", "properties", true, "Properties file with which specs are compiled");
 
         
         CommandLineParser parser = new PosixParser();
@@ -214,6 +221,9 @@ public class GalenArguments {
         galen.setJsonReport(cmd.getOptionValue("J"));
         galen.setGroups(convertTags(cmd.getOptionValue("G")));
         galen.setExcludedGroups(convertTags(cmd.getOptionValue("Q")));
+        galen.setShard(cmd.getOptionValue("S"));
+        galen.setShardTimings(cmd.getOptionValue("T"));
+        galen.setProperties(cmd.getOptionValue("P"));
 
         verifyArguments(galen);
         return galen;
@@ -265,6 +275,12 @@ public class GalenArguments {
             else if ("dump".equals(galen.getAction())) {
                 return;
             }
+            else if ("merge-reports".equals(galen.getAction())) {
+                verifyMergeReportsAction(galen);
+            }
+            else if ("compile".equals(galen.getAction())) {
+                verifyCompileAction(galen);
+            }
             else throw new IllegalArgumentException("Unknown action: " + galen.getAction());
         }
     }
@@ -279,6 +295,27 @@ public class GalenArguments {
         if (galen.getPaths() == null || galen.getPaths().isEmpty()) {
             throw new IllegalArgumentException("Missing test files");
         }
+        if (galen.getShard() != null) {
+            TestShard.parse(galen.getShard());
+        }
+        if (galen.getShardTimings() != null && !new File(galen.getShardTimings()).isFile()) {
+            throw new IllegalArgumentException("Shard timings file does not exist: " + galen.getShardTimings());
+        }
+    }
+
+    private static void verifyMergeReportsAction(GalenArguments galen) {
+        if (galen.getPaths() == null || galen.getPaths().isEmpty()) {
+            throw new IllegalArgumentException("Missing json report folders");
+        }
+    }
+
+    private static void verifyCompileAction(GalenArguments galen) {
+        if (galen.getPaths() == null || galen.getPaths().isEmpty()) {
+            throw new IllegalArgumentException("Missing spec files");
+        }
+        if (galen.getProperties() != null && !new File(galen.getProperties()).isFile()) {
+            throw new IllegalArgumentException("Properties file does not exist: " + galen.getProperties());
+        }
     }
 
     private static String merge(String[] args) {
@@ -352,6 +389,9 @@ public class GalenArguments {
             .append(jsonReport)
             .append(groups)
             .append(excludedGroups)
+            .append(shard)
+            .append(shardTimings)
+            .append(properties)
             .toHashCode(); //@formatter:on
     }
     
@@ -387,6 +427,9 @@ public class GalenArguments {
             .append(jsonReport, rhs.jsonReport)
             .append(groups, rhs.groups)
             .append(excludedGroups, rhs.excludedGroups)
+            .append(shard, rhs.shard)
+            .append(shardTimings, rhs.shardTimings)
+            .append(properties, rhs.properties)
             .isEquals(); //@formatter:on
     }
     
@@ -411,6 +454,9 @@ public class GalenArguments {
             .append("jsonReport", jsonReport)
             .append("groups", groups)
             .append("excludedGroups", excludedGroups)
+            .append("shard", shard)
+            .append("shardTimings", shardTimings)
+            .append("properties", properties)
             .toString(); //@formatter:on
     }
 
@@ -577,4 +623,43 @@ public class GalenArguments {
     public void setExcludedGroups(List<String> excludedGroups) {
         this.excludedGroups = excludedGroups;
     }
-}
\ No newline at end of file
+
+    public String getShard() {
+        return shard;
+    }
+
+    public void setShard(String shard) {
+        this.shard = shard;
+    }
+
+    public GalenArguments withShard(String shard) {
+        this.shard = shard;
+        return this;
+    }
+
+    public String getShardTimings() {
+        return shardTimings;
+    }
+
+    public void setShardTimings(String shardTimings) {
+        this.shardTimings = shardTimings;
+    }
+
+    public GalenArguments withShardTimings(String shardTimings) {
+        this.shardTimings = shardTimings;
+        return this;
+    }
+
+    public String getProperties() {
+        return properties;
+    }
+
+    public void setProperties(String properties) {
+        this.properties = properties;
+    }
+
+    public GalenArguments withProperties(String properties) {
+        this.properties = properties;
+        return this;
+    }
+}
@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserPool;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.tests.GalenBasicTest;
@@ -65,7 +66,7 @@ public class GalenBasicTestRunner {
             report.gotoRoot();
             report.sectionStart(pageTest.getTitle());
             
-            Browser browser = pageTest.getBrowserFactory().openBrowser();
+            Browser browser = BrowserPool.getInstance().acquire(pageTest.getBrowserFactory());
 
             try {
                 pageRunner.run(browser, pageTest);
@@ -75,7 +76,7 @@ public class GalenBasicTestRunner {
                 report.error(ex);
             }
             
-            browser.quit();
+            BrowserPool.getInstance().release(pageTest.getBrowserFactory(), browser);
             report.sectionEnd();
         }
         
@@ -58,6 +58,8 @@ public class GalenPageRunner implements ValidationListener {
             browser.changeWindowSize(pageTest.getScreenSize());
         }
         
+        browser.invalidatePage();
+
         if (pageTest.getUrl() != null && !pageTest.getUrl().isEmpty()) {
             browser.load(pageTest.getUrl());
         }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps durations of tests from previous runs so that the longest tests could be started first.
+ * Durations are stored in milliseconds in a properties file where the key is the test name
+ */
+public class TestDurations {
+
+    private final static Logger LOG = LoggerFactory.getLogger(TestDurations.class);
+
+    private final File file;
+    private final Map<String, Long> durations = new HashMap<String, Long>();
+
+    public TestDurations(File file) {
+        this.file = file;
+    }
+
+    public static TestDurations load(File file) {
+        TestDurations testDurations = new TestDurations(file);
+        if (file != null && file.exists()) {
+            InputStream is = null;
+            try {
+                is = new FileInputStream(file);
+                Properties properties = new Properties();
+                properties.load(is);
+                for (String name : properties.stringPropertyNames()) {
+                    try {
+                        testDurations.durations.put(name, Long.parseLong(properties.getProperty(name).trim()));
+                    } catch (NumberFormatException ex) {
+                        LOG.warn("Incorrect duration for test \"" + name + "\" in " + file.getPath());
+                    }
+                }
+            } catch (IOException ex) {
+                LOG.error("Couldn't read test durations from " + file.getPath(), ex);
+            } finally {
+                IOUtils.closeQuietly(is);
+            }
+        }
+        return testDurations;
+    }
+
+    /**
+     * @return duration of test in milliseconds or null if it is not known
+     */
+    public synchronized Long get(String testName) {
+        return durations.get(testName);
+    }
+
+    /**
+     * Records the duration of the test. In case there is already a duration from previous runs
+     * the average of both is taken so that a single slow run does not affect the order too much
+     */
+    public synchronized void record(String testName, long durationMillis) {
+        Long previous = durations.get(testName);
+        if (previous != null) {
+            durations.put(testName, (previous + durationMillis) / 2);
+        }
+        else {
+            durations.put(testName, durationMillis);
+        }
+    }
+
+    public synchronized void save() {
+        if (file == null) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> duration : durations.entrySet()) {
+            properties.setProperty(duration.getKey(), duration.getValue().toString());
+        }
+
+        OutputStream os = null;
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            os = new FileOutputStream(file);
+            properties.store(os, "Galen test durations in milliseconds");
+        } catch (IOException ex) {
+            LOG.error("Couldn't save test durations to " + file.getPath(), ex);
+        } finally {
+            IOUtils.closeQuietly(os);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.TestRunnable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tests in a pool of threads starting from the ones which took longest in previous runs.
+ * Tests without known duration are started first in their original order.
+ * Each thread picks the next test as soon as it finishes the previous one.
+ */
+public class TestScheduler {
+
+    private final static Logger LOG = LoggerFactory.getLogger(TestScheduler.class);
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+
+    private final int amountOfThreads;
+    private final TestDurations durations;
+
+    private final Object progressLock = new Object();
+    private int totalTests = 0;
+    private int finishedTests = 0;
+    private long finishedTestsDuration = 0;
+    private long remainingKnownDuration = 0;
+    private int remainingUnknownTests = 0;
+
+    public TestScheduler(int amountOfThreads, TestDurations durations) {
+        this.amountOfThreads = Math.max(1, amountOfThreads);
+        this.durations = durations;
+    }
+
+    /**
+     * Runs all tests and blocks until they are finished
+     */
+    public void run(List<TestRunnable> tests) {
+        List<TestRunnable> orderedTests = order(tests);
+
+        synchronized (progressLock) {
+            totalTests = orderedTests.size();
+            finishedTests = 0;
+            finishedTestsDuration = 0;
+            remainingKnownDuration = 0;
+            remainingUnknownTests = 0;
+            for (TestRunnable test : orderedTests) {
+                Long duration = durations.get(test.getTest().getName());
+                if (duration != null) {
+                    remainingKnownDuration += duration;
+                }
+                else {
+                    remainingUnknownTests++;
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
+        for (TestRunnable test : orderedTests) {
+            executor.execute(new MeasuredTest(test, durations.get(test.getTest().getName())));
+        }
+        executor.shutdown();
+
+        try {
+            while (!executor.awaitTermination(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+                LOG.info(String.format("Finished %d of %d tests. Estimated time left: %d seconds",
+                        getFinishedTests(), getTotalTests(), getEstimatedTimeLeft() / 1000));
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for tests", ex);
+        }
+
+        durations.save();
+    }
+
+    public List<TestRunnable> order(List<TestRunnable> tests) {
+        List<TestRunnable> orderedTests = new ArrayList<TestRunnable>(tests);
+        Collections.sort(orderedTests, new Comparator<TestRunnable>() {
+            @Override
+            public int compare(TestRunnable first, TestRunnable second) {
+                long firstDuration = expectedDuration(first);
+                long secondDuration = expectedDuration(second);
+                if (firstDuration == secondDuration) {
+                    return 0;
+                }
+                return firstDuration > secondDuration ? -1 : 1;
+            }
+        });
+        return orderedTests;
+    }
+
+    private long expectedDuration(TestRunnable test) {
+        Long duration = durations.get(test.getTest().getName());
+        if (duration != null) {
+            return duration;
+        }
+        else return Long.MAX_VALUE;
+    }
+
+    public int getTotalTests() {
+        synchronized (progressLock) {
+            return totalTests;
+        }
+    }
+
+    public int getFinishedTests() {
+        synchronized (progressLock) {
+            return finishedTests;
+        }
+    }
+
+    /**
+     * @return estimated time in milliseconds which is left until all tests are finished.
+     * Tests without known duration are estimated with the average duration of finished tests
+     */
+    public long getEstimatedTimeLeft() {
+        synchronized (progressLock) {
+            long averageDuration = finishedTests > 0 ? finishedTestsDuration / finishedTests : 0;
+            return (remainingKnownDuration + remainingUnknownTests * averageDuration) / amountOfThreads;
+        }
+    }
+
+    private void onTestFinished(TestRunnable test, Long expectedDuration, long duration) {
+        synchronized (progressLock) {
+            finishedTests++;
+            finishedTestsDuration += duration;
+            if (expectedDuration != null) {
+                remainingKnownDuration -= expectedDuration;
+            }
+            else {
+                remainingUnknownTests--;
+            }
+        }
+
+        durations.record(test.getTest().getName(), duration);
+    }
+
+    private class MeasuredTest implements Runnable {
+        private final TestRunnable test;
+        private final Long expectedDuration;
+
+        public MeasuredTest(TestRunnable test, Long expectedDuration) {
+            this.test = test;
+            this.expectedDuration = expectedDuration;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.currentTimeMillis();
+            try {
+                test.run();
+            }
+            finally {
+                onTestFinished(test, expectedDuration, System.currentTimeMillis() - startedAt);
+            }
+        }
+    }
+}
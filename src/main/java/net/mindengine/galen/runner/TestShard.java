@@ -0,0 +1,149 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import net.mindengine.galen.tests.GalenTest;
+
+/**
+ * Defines which part of the tests should be run on this machine, e.g. "3/8" means third shard out of eight.
+ * All shards get the same list of tests and split it deterministically by hash of the test name.
+ * In case all shards are given the same timings file, tests with known durations
+ * are balanced so that all shards take roughly the same time.
+ * Durations which are recorded locally after each run should never be used here
+ * as they differ from machine to machine and shards would then disagree on the split.
+ */
+public class TestShard {
+
+    private final int index;
+    private final int count;
+
+    public TestShard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException(String.format("Incorrect shard: %d/%d", index, count));
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    public static TestShard parse(String text) {
+        if (text != null) {
+            String[] parts = text.trim().split("/");
+            if (parts.length == 2) {
+                try {
+                    return new TestShard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+                } catch (IllegalArgumentException ex) {
+                    // handled below
+                }
+            }
+        }
+        throw new IllegalArgumentException("Incorrect shard: " + text + ". It should be defined like 3/8");
+    }
+
+    public List<GalenTest> select(List<GalenTest> tests) {
+        return select(tests, new TestDurations(null));
+    }
+
+    /**
+     * @param durations timings shared by all shards
+     */
+    public List<GalenTest> select(List<GalenTest> tests, TestDurations durations) {
+        long[] shardDurations = new long[count];
+        List<GalenTest> testsWithDuration = new ArrayList<GalenTest>();
+        boolean[] selected = new boolean[tests.size()];
+
+        long totalDuration = 0;
+        for (GalenTest test : tests) {
+            Long duration = durations.get(test.getName());
+            if (duration != null) {
+                testsWithDuration.add(test);
+                totalDuration += duration;
+            }
+        }
+        long averageDuration = testsWithDuration.isEmpty() ? 0 : totalDuration / testsWithDuration.size();
+
+        int position = 0;
+        for (GalenTest test : tests) {
+            if (durations.get(test.getName()) == null) {
+                int shard = shardByHash(test.getName());
+                shardDurations[shard] += averageDuration;
+                selected[position] = shard == index - 1;
+            }
+            position++;
+        }
+
+        final TestDurations testDurations = durations;
+        Collections.sort(testsWithDuration, new Comparator<GalenTest>() {
+            @Override
+            public int compare(GalenTest first, GalenTest second) {
+                int result = testDurations.get(second.getName()).compareTo(testDurations.get(first.getName()));
+                if (result == 0) {
+                    result = first.getName().compareTo(second.getName());
+                }
+                return result;
+            }
+        });
+
+        Set<GalenTest> selectedWithDuration = Collections.newSetFromMap(new IdentityHashMap<GalenTest, Boolean>());
+        for (GalenTest test : testsWithDuration) {
+            int shard = leastLoadedShard(shardDurations);
+            shardDurations[shard] += durations.get(test.getName());
+            if (shard == index - 1) {
+                selectedWithDuration.add(test);
+            }
+        }
+
+        List<GalenTest> result = new LinkedList<GalenTest>();
+        position = 0;
+        for (GalenTest test : tests) {
+            if (selected[position] || selectedWithDuration.contains(test)) {
+                result.add(test);
+            }
+            position++;
+        }
+        return result;
+    }
+
+    private int leastLoadedShard(long[] shardDurations) {
+        int shard = 0;
+        for (int i = 1; i < shardDurations.length; i++) {
+            if (shardDurations[i] < shardDurations[shard]) {
+                shard = i;
+            }
+        }
+        return shard;
+    }
+
+    private int shardByHash(String testName) {
+        int hash = testName != null ? testName.hashCode() : 0;
+        return (hash % count + count) % count;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
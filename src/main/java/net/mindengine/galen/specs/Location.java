@@ -15,6 +15,7 @@
 ******************************************************************************/
 package net.mindengine.galen.specs;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
@@ -22,7 +23,9 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
-public class Location {
+public class Location implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     private Range range;
     private List<Side> sides;
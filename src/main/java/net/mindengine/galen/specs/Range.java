@@ -17,12 +17,15 @@ package net.mindengine.galen.specs;
 
 import static java.lang.String.format;
 
+import java.io.Serializable;
 import java.text.DecimalFormat;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
-public class Range {
+public class Range implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public Range(Double from, Double to) {
         this.from = from;
@@ -15,11 +15,15 @@
 ******************************************************************************/
 package net.mindengine.galen.specs;
 
+import java.io.Serializable;
 import java.util.Properties;
 
 import net.mindengine.galen.specs.reader.Place;
 
-public abstract class Spec {
+public abstract class Spec implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private String originalText;
     private Properties properties;
     private Place place;
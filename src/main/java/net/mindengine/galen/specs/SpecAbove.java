@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public class SpecAbove extends SpecDirectionPosition {
 
+    private static final long serialVersionUID = 1L;
+
 	public SpecAbove(String object, Range range) {
 		super(object, range);
 	}
@@ -19,6 +19,8 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 public class SpecAbsent extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder(17, 31).toHashCode();
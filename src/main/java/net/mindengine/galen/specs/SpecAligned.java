@@ -16,6 +16,8 @@
 package net.mindengine.galen.specs;
 
 public class SpecAligned extends SpecObjectWithErrorRate {
+
+    private static final long serialVersionUID = 1L;
     
     private Alignment alignment;
 
@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public class SpecBelow extends SpecDirectionPosition {
 
+    private static final long serialVersionUID = 1L;
+
 	public SpecBelow(String object, Range range) {
 		super(object, range);
 	}
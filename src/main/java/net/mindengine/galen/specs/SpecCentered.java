@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public class SpecCentered extends SpecObjectWithErrorRate {
 
+    private static final long serialVersionUID = 1L;
+
 	public enum Alignment {
 		ALL, VERTICALLY, HORIZONTALLY;
 		
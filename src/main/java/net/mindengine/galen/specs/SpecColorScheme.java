@@ -21,6 +21,8 @@ import net.mindengine.galen.specs.colors.ColorRange;
 
 public class SpecColorScheme extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     private List<ColorRange> colorRanges;
 
     public List<ColorRange> getColorRanges() {
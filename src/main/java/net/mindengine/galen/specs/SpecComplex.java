@@ -23,6 +23,8 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 
 public abstract class SpecComplex extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     private String object;
     private List<Location> locations;
     
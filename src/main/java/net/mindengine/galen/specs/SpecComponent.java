@@ -18,6 +18,8 @@ package net.mindengine.galen.specs;
 
 public class SpecComponent extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     private String specPath;
     private boolean frame;
 
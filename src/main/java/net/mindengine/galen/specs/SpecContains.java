@@ -20,6 +20,8 @@ import java.util.List;
 
 public class SpecContains extends SpecObjectList {
 
+    private static final long serialVersionUID = 1L;
+
     private boolean isPartly = false;
     
     public SpecContains(List<String> list, boolean isPartly) {
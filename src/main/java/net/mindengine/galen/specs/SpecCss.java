@@ -19,6 +19,9 @@ package net.mindengine.galen.specs;
  * Created by ishubin on 2014/11/08.
  */
 public class SpecCss extends SpecText {
+
+    private static final long serialVersionUID = 1L;
+
     private String cssPropertyName;
 
     public SpecCss(String cssPropertyName, Type type, String text) {
@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public abstract class SpecDirectionPosition extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
 	public SpecDirectionPosition(String object, Range range) {
 		this.object = object;
 		this.range = range;
@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public class SpecHeight extends SpecRange {
 
+    private static final long serialVersionUID = 1L;
+
     public SpecHeight(Range range) {
         super(range);
     }
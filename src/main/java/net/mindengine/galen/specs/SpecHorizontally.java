@@ -18,6 +18,8 @@ package net.mindengine.galen.specs;
 
 public class SpecHorizontally extends SpecAligned {
 
+    private static final long serialVersionUID = 1L;
+
     public SpecHorizontally(Alignment alignment, String object) {
         setAlignment(alignment);
         setObject(object);
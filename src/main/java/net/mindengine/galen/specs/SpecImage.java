@@ -18,8 +18,13 @@ package net.mindengine.galen.specs;
 import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.reader.StringCharReader;
-import net.mindengine.rainbow4j.filters.ImageFilter;
+import net.mindengine.rainbow4j.filters.*;
 
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -27,6 +32,8 @@ import static net.mindengine.galen.parser.Expectations.number;
 
 public class SpecImage extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     public enum ErrorRateType {
         PIXELS("px"), PERCENT("%");
         private final String name;
@@ -41,7 +48,10 @@ public class SpecImage extends Spec {
         }
     }
 
-    public static class ErrorRate {
+    public static class ErrorRate implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
         private Double value;
         private ErrorRateType type;
         public ErrorRate(Double value, ErrorRateType type) {
@@ -88,9 +98,10 @@ public class SpecImage extends Spec {
     private ErrorRate errorRate;
 
     private Integer tolerance;
-    private List<ImageFilter> originalFilters = new LinkedList<ImageFilter>();
-    private List<ImageFilter> sampleFilters = new LinkedList<ImageFilter>();
-    private List<ImageFilter> mapFilters = new LinkedList<ImageFilter>();
+    // Image filters are not serializable so they are written as pairs of filter name and its value
+    private transient List<ImageFilter> originalFilters = new LinkedList<ImageFilter>();
+    private transient List<ImageFilter> sampleFilters = new LinkedList<ImageFilter>();
+    private transient List<ImageFilter> mapFilters = new LinkedList<ImageFilter>();
     private Rect selectedArea;
     private boolean stretch = false;
     private boolean cropIfOutside = false;
@@ -168,4 +179,78 @@ public class SpecImage extends Spec {
         this.errorRate = errorRate;
     }
 
+    public static ImageFilter createFilter(String filterName, int value) {
+        if ("contrast".equals(filterName)) {
+            return new ContrastFilter(value);
+        }
+        else if ("blur".equals(filterName)) {
+            return new BlurFilter(value);
+        }
+        else if ("denoise".equals(filterName)) {
+            return new DenoiseFilter(value);
+        }
+        else if ("saturation".equals(filterName)) {
+            return new SaturationFilter(value);
+        }
+        else if ("quantinize".equals(filterName)) {
+            return new QuantinizeFilter(value);
+        }
+        else throw new SyntaxException("Unknown image filter: " + filterName);
+    }
+
+    private static void writeFilters(ObjectOutputStream out, List<ImageFilter> filters) throws IOException {
+        out.writeInt(filters != null ? filters.size() : -1);
+        if (filters != null) {
+            for (ImageFilter filter : filters) {
+                if (filter instanceof ContrastFilter) {
+                    out.writeUTF("contrast");
+                    out.writeInt(((ContrastFilter) filter).getLevel());
+                }
+                else if (filter instanceof BlurFilter) {
+                    out.writeUTF("blur");
+                    out.writeInt(((BlurFilter) filter).getRadius());
+                }
+                else if (filter instanceof DenoiseFilter) {
+                    out.writeUTF("denoise");
+                    out.writeInt(((DenoiseFilter) filter).getRadius());
+                }
+                else if (filter instanceof SaturationFilter) {
+                    out.writeUTF("saturation");
+                    out.writeInt(((SaturationFilter) filter).getLevel());
+                }
+                else if (filter instanceof QuantinizeFilter) {
+                    out.writeUTF("quantinize");
+                    out.writeInt(((QuantinizeFilter) filter).getColorsAmount());
+                }
+                else throw new NotSerializableException(filter.getClass().getName());
+            }
+        }
+    }
+
+    private static List<ImageFilter> readFilters(ObjectInputStream in) throws IOException {
+        int amount = in.readInt();
+        if (amount < 0) {
+            return null;
+        }
+        List<ImageFilter> filters = new LinkedList<ImageFilter>();
+        for (int i = 0; i < amount; i++) {
+            String filterName = in.readUTF();
+            filters.add(createFilter(filterName, in.readInt()));
+        }
+        return filters;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeFilters(out, originalFilters);
+        writeFilters(out, sampleFilters);
+        writeFilters(out, mapFilters);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        originalFilters = readFilters(in);
+        sampleFilters = readFilters(in);
+        mapFilters = readFilters(in);
+    }
 }
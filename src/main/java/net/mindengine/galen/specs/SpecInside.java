@@ -19,6 +19,8 @@ import java.util.List;
 
 public class SpecInside extends SpecComplex {
 
+    private static final long serialVersionUID = 1L;
+
     private boolean partly = false;
     public SpecInside(String objectName, List<Location> locations) {
         super(objectName, locations);
@@ -16,6 +16,9 @@
 package net.mindengine.galen.specs;
 
 public class SpecLeftOf extends SpecDirectionPosition {
+
+    private static final long serialVersionUID = 1L;
+
     public SpecLeftOf(String object, Range range) {
         super(object, range);
     }
@@ -19,6 +19,8 @@ import java.util.List;
 
 public class SpecNear extends SpecComplex {
 
+    private static final long serialVersionUID = 1L;
+
     public SpecNear(String objectName, List<Location> locations) {
         super(objectName, locations);
     }
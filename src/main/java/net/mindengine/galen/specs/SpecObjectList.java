@@ -18,6 +18,8 @@ package net.mindengine.galen.specs;
 import java.util.List;
 
 public abstract class SpecObjectList extends Spec {
+
+    private static final long serialVersionUID = 1L;
     
     private List<String> childObjects;
 
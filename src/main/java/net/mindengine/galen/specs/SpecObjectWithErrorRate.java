@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public class SpecObjectWithErrorRate extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     private String object;
     private int errorRate = 0;
     public String getObject() {
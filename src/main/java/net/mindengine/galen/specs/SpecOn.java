@@ -20,6 +20,8 @@ import java.util.List;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 public class SpecOn extends SpecComplex {
+
+    private static final long serialVersionUID = 1L;
     
     private Side sideVertical;
     private Side sideHorizontal;
@@ -21,6 +21,8 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 
 public abstract class SpecRange extends Spec {
 
+    private static final long serialVersionUID = 1L;
+
     private Range range;
 
     public SpecRange(Range range) {
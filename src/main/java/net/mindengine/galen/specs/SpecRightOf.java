@@ -16,6 +16,9 @@
 package net.mindengine.galen.specs;
 
 public class SpecRightOf extends SpecDirectionPosition {
+
+    private static final long serialVersionUID = 1L;
+
     public SpecRightOf(String object, Range range) {
         super(object, range);
     }
@@ -21,6 +21,9 @@ import net.mindengine.galen.parser.SyntaxException;
 import java.util.List;
 
 public class SpecText extends Spec {
+
+    private static final long serialVersionUID = 1L;
+
     private List<String> operations;
 
     public List<String> getOperations() {
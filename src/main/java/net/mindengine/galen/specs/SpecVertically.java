@@ -18,6 +18,8 @@ package net.mindengine.galen.specs;
 
 public class SpecVertically extends SpecAligned {
 
+    private static final long serialVersionUID = 1L;
+
     public SpecVertically(Alignment alignment, String object) {
         setAlignment(alignment);
         setObject(object);
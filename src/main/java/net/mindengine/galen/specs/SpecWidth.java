@@ -17,6 +17,8 @@ package net.mindengine.galen.specs;
 
 public class SpecWidth extends SpecRange {
 
+    private static final long serialVersionUID = 1L;
+
     public SpecWidth(Range range) {
         super(range);
     }
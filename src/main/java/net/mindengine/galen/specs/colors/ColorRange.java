@@ -16,10 +16,13 @@
 package net.mindengine.galen.specs.colors;
 
 import java.awt.Color;
+import java.io.Serializable;
 
 import net.mindengine.galen.specs.Range;
 
-public class ColorRange {
+public class ColorRange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Range range;
     private Color color;
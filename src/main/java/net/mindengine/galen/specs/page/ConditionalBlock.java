@@ -15,9 +15,12 @@
 ******************************************************************************/
 package net.mindengine.galen.specs.page;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class ConditionalBlock {
+public class ConditionalBlock implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private List<ConditionalBlockStatement> statements;
     private PageSection otherwiseObjects;
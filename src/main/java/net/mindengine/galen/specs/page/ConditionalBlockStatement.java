@@ -15,8 +15,12 @@
 ******************************************************************************/
 package net.mindengine.galen.specs.page;
 
+import java.io.Serializable;
 
-public class ConditionalBlockStatement {
+
+public class ConditionalBlockStatement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private boolean inverted = false;
     private PageSection section;
@@ -19,13 +19,20 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
-public class CorrectionsRect {
+import java.io.Serializable;
+
+public class CorrectionsRect implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     public static enum Type {
         MINUS, PLUS, EQUALS
     }
     
-    public static class Correction {
+    public static class Correction implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
         public Correction(int value, Type type) {
             super();
             this.value = value;
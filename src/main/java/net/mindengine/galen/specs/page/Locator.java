@@ -19,7 +19,11 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
-public class Locator {
+import java.io.Serializable;
+
+public class Locator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String locatorType;
     private String locatorValue;
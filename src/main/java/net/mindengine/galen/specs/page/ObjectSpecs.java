@@ -15,12 +15,15 @@
 ******************************************************************************/
 package net.mindengine.galen.specs.page;
 
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
 import net.mindengine.galen.specs.Spec;
 
-public class ObjectSpecs {
+public class ObjectSpecs implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String objectName;
     private List<Spec> specs = new LinkedList<Spec>();
@@ -17,10 +17,13 @@ package net.mindengine.galen.specs.page;
 
 import net.mindengine.galen.specs.reader.page.TaggedPageSection;
 
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
-public class PageSection {
+public class PageSection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private List<ObjectSpecs> objects = new LinkedList<ObjectSpecs>();
     private String name;
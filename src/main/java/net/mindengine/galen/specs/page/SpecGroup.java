@@ -17,10 +17,14 @@ package net.mindengine.galen.specs.page;
 
 import net.mindengine.galen.specs.Spec;
 
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
-public class SpecGroup {
+public class SpecGroup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private String name;
 
     private List<Spec> specs = new LinkedList<Spec>();
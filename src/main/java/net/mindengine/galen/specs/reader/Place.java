@@ -19,7 +19,11 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
-public class Place {
+import java.io.Serializable;
+
+public class Place implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String filePath;
     private int lineNumber;
@@ -27,6 +27,7 @@ import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +46,16 @@ public class SpecReader {
     private Properties properties;
     private Map<Pattern, SpecProcessor> specsMap = new HashMap<Pattern, SpecProcessor>();
 
+    /**
+     * Spec patterns grouped by the keyword they start with, so that a spec is matched only against
+     * the patterns of its first word instead of all of them
+     */
+    private Map<String, List<Pattern>> specsByKeyword = new HashMap<String, List<Pattern>>();
+
+    private static final Map<String, Pattern> compiledPatterns = new ConcurrentHashMap<String, Pattern>();
+    private static final Map<String, Set<String>> patternKeywords = new ConcurrentHashMap<String, Set<String>>();
+    private static final Pattern LEADING_KEYWORD = Pattern.compile("^[a-z]+");
+
     public SpecReader(Properties properties) {
         initSpecs();
         this.properties = properties;
@@ -450,22 +461,7 @@ public class SpecReader {
         String filterName = new ExpectWord().read(reader);
         Double value = new ExpectNumber().read(reader);
 
-        if ("contrast".equals(filterName)) {
-            return new ContrastFilter(value.intValue());
-        }
-        else if ("blur".equals(filterName)) {
-            return new BlurFilter(value.intValue());
-        }
-        else if ("denoise".equals(filterName)) {
-            return new DenoiseFilter(value.intValue());
-        }
-        else if ("saturation".equals(filterName)) {
-            return new SaturationFilter(value.intValue());
-        }
-        else if ("quantinize".equals(filterName)) {
-            return new QuantinizeFilter(value.intValue());
-        }
-        else throw new SyntaxException("Unknown image filter: " + filterName);
+        return SpecImage.createFilter(filterName, value.intValue());
     }
 
     private Rect parseRect(String text) {
@@ -528,7 +524,16 @@ public class SpecReader {
     }
 
     private SpecProcessor findMatchingSpec(String specName) {
-        
+        List<Pattern> candidates = specsByKeyword.get(firstWord(specName));
+        if (candidates != null) {
+            for (Pattern pattern : candidates) {
+                if (pattern.matcher(specName).matches()) {
+                    return specsMap.get(pattern);
+                }
+            }
+        }
+
+        // some patterns (e.g. "css.*") also match names which are glued to their keyword
         for (Map.Entry<Pattern, SpecProcessor> entry : specsMap.entrySet()) {
             Matcher matcher = entry.getKey().matcher(specName);
             if (matcher.matches()) {
@@ -538,8 +543,57 @@ public class SpecReader {
         throw new SyntaxException(UNKNOWN_LINE, "Such constraint does not exist: " + specName);
     }
 
+    private String firstWord(String specName) {
+        int spaceIndex = specName.indexOf(' ');
+        if (spaceIndex > 0) {
+            return specName.substring(0, spaceIndex);
+        }
+        return specName;
+    }
+
     private void putSpec(String patternText, SpecProcessor specProcessor) {
-        specsMap.put(Pattern.compile(patternText), specProcessor);
+        Pattern pattern = compiledPatterns.get(patternText);
+        if (pattern == null) {
+            pattern = Pattern.compile(patternText);
+            compiledPatterns.put(patternText, pattern);
+        }
+        specsMap.put(pattern, specProcessor);
+
+        Set<String> keywords = patternKeywords.get(patternText);
+        if (keywords == null) {
+            keywords = findKeywords(patternText);
+            patternKeywords.put(patternText, keywords);
+        }
+
+        for (String keyword : keywords) {
+            List<Pattern> patterns = specsByKeyword.get(keyword);
+            if (patterns == null) {
+                patterns = new LinkedList<Pattern>();
+                specsByKeyword.put(keyword, patterns);
+            }
+            if (!patterns.contains(pattern)) {
+                patterns.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * Takes the leading word of the pattern or of each alternative in case the pattern is a group like "(above|below)"
+     */
+    private static Set<String> findKeywords(String patternText) {
+        String text = patternText;
+        if (text.startsWith("(") && text.endsWith(")")) {
+            text = text.substring(1, text.length() - 1);
+        }
+
+        Set<String> keywords = new HashSet<String>();
+        for (String alternative : text.split("\\|")) {
+            Matcher matcher = LEADING_KEYWORD.matcher(alternative);
+            if (matcher.find()) {
+                keywords.add(matcher.group());
+            }
+        }
+        return keywords;
     }
 
     public Properties getProperties() {
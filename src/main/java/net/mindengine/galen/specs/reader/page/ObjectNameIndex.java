@@ -0,0 +1,117 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Sorted set of object names which is used to look up objects by regular expressions.
+ * Only names starting with the literal prefix of expression (e.g. "menu-item-" for "menu-item-[0-9]+")
+ * are matched against it, and compiled patterns are shared between all indexes.
+ */
+public class ObjectNameIndex {
+
+    private static final String SPECIAL_CHARS = "\\.[]{}()*+?^$|#";
+    private static final String QUANTIFIER_CHARS = "?*+{";
+    private static final int MAX_COMPILED_PATTERNS = 1000;
+
+    @SuppressWarnings("serial")
+    private static final Map<String, Pattern> compiledPatterns = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            return size() > MAX_COMPILED_PATTERNS;
+        }
+    };
+
+    private final TreeSet<String> names = new TreeSet<String>();
+
+    public void add(String name) {
+        names.add(name);
+    }
+
+    public void addAll(Iterable<? extends String> names) {
+        for (String name : names) {
+            this.names.add(name);
+        }
+    }
+
+    public void remove(String name) {
+        names.remove(name);
+    }
+
+    public void clear() {
+        names.clear();
+    }
+
+    /**
+     * @param regex - java regular expression which should match the whole object name
+     * @return sorted list of matching object names
+     */
+    public List<String> find(String regex) {
+        Pattern pattern = compile(regex);
+        String prefix = findLiteralPrefix(regex);
+
+        SortedSet<String> candidates = names;
+        if (!prefix.isEmpty()) {
+            candidates = names.subSet(prefix, prefix + Character.MAX_VALUE);
+        }
+
+        List<String> foundNames = new LinkedList<String>();
+        for (String name : candidates) {
+            if (pattern.matcher(name).matches()) {
+                foundNames.add(name);
+            }
+        }
+        return foundNames;
+    }
+
+    private static Pattern compile(String regex) {
+        synchronized (compiledPatterns) {
+            Pattern pattern = compiledPatterns.get(regex);
+            if (pattern == null) {
+                pattern = Pattern.compile(regex);
+                compiledPatterns.put(regex, pattern);
+            }
+            return pattern;
+        }
+    }
+
+    /**
+     * Returns the part of expression which any matching name should start with
+     */
+    static String findLiteralPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+
+        int length = 0;
+        while (length < regex.length() && SPECIAL_CHARS.indexOf(regex.charAt(length)) < 0) {
+            length++;
+        }
+
+        // the last literal symbol is optional or repeated if it is followed by a quantifier
+        if (length < regex.length() && length > 0 && QUANTIFIER_CHARS.indexOf(regex.charAt(length)) >= 0) {
+            length--;
+        }
+        return regex.substring(0, length);
+    }
+}
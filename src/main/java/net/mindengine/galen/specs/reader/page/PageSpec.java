@@ -15,22 +15,28 @@
 ******************************************************************************/
 package net.mindengine.galen.specs.reader.page;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.rules.Rule;
 import net.mindengine.galen.specs.reader.page.rules.RuleParser;
 
+import org.apache.commons.lang3.SerializationUtils;
+
 
 public class PageSpec {
 
     private static final List<String> EMPTY_TAGS = new LinkedList<String>();
-    private Map<String, Locator> objects = new HashMap<String, Locator>();
+    private final ObjectNameIndex objectNameIndex = new ObjectNameIndex();
+    private Map<String, Locator> objects = new IndexedObjects();
     private Map<String, Locator> multiObjects = new HashMap<String, Locator>();
     private List<TaggedPageSection> sections = new LinkedList<TaggedPageSection>();
     private List<PageSpecRule> pageSpecRules = new LinkedList<PageSpecRule>();
@@ -40,7 +46,9 @@ public class PageSpec {
     }
 
     public void setObjects(Map<String, Locator> objects) {
-        this.objects = objects;
+        objectNameIndex.clear();
+        this.objects = new IndexedObjects();
+        this.objects.putAll(objects);
     }
 
     public List<TaggedPageSection> getSections() {
@@ -87,17 +95,16 @@ public class PageSpec {
      * @return
      */
     public List<String> findMatchingObjectNames(String objectNameSimpleRegex) {
-        
-        Pattern pattern = Pattern.compile(objectNameSimpleRegex.replace("*", "[a-zA-Z0-9_]+"));
-        List<String> foundObjects = new LinkedList<String>();
-        
-        for (String objectName : objects.keySet()) {
-            if (pattern.matcher(objectName).matches()) {
-                foundObjects.add(objectName);
-            }
-        }
-        
-        return foundObjects;
+        return findObjectNames(objectNameSimpleRegex.replace("*", "[a-zA-Z0-9_]+"));
+    }
+
+    /**
+     * Find all objects which names match the given regular expression
+     * @param regex - java regular expression
+     * @return sorted list of object names
+     */
+    public List<String> findObjectNames(String regex) {
+        return objectNameIndex.find(regex);
     }
 
     public Map<String, Locator> getMultiObjects() {
@@ -156,4 +163,103 @@ public class PageSpec {
         return this.pageSpecRules;
     }
 
+    /**
+     * Creates a deep copy of page spec which could be modified (e.g. by merging sections or updating multi objects)
+     * and used in other thread without affecting the original one. Rules are shared as they are only used while reading specs
+     * @return
+     */
+    public PageSpec copy() {
+        PageSpec copy = new PageSpec();
+        copy.objects.putAll(SerializationUtils.clone(new HashMap<String, Locator>(objects)));
+        copy.multiObjects.putAll(SerializationUtils.clone(new HashMap<String, Locator>(multiObjects)));
+        copy.pageSpecRules.addAll(pageSpecRules);
+        copy.sections = SerializationUtils.clone(new LinkedList<TaggedPageSection>(sections));
+        return copy;
+    }
+
+    /**
+     * Keeps object name index up to date with all changes made via map methods,
+     * its key, value and entry views and their iterators
+     */
+    private class IndexedObjects extends AbstractMap<String, Locator> {
+        private final Map<String, Locator> locators = new HashMap<String, Locator>();
+
+        private final Set<Map.Entry<String, Locator>> entrySet = new AbstractSet<Map.Entry<String, Locator>>() {
+            @Override
+            public Iterator<Map.Entry<String, Locator>> iterator() {
+                final Iterator<Map.Entry<String, Locator>> iterator = locators.entrySet().iterator();
+                return new Iterator<Map.Entry<String, Locator>>() {
+                    private String lastName;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Locator> next() {
+                        Map.Entry<String, Locator> entry = iterator.next();
+                        lastName = entry.getKey();
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        objectNameIndex.remove(lastName);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object entry) {
+                return locators.entrySet().contains(entry);
+            }
+
+            @Override
+            public int size() {
+                return locators.size();
+            }
+        };
+
+        @Override
+        public Set<Map.Entry<String, Locator>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return locators.size();
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return locators.containsKey(name);
+        }
+
+        @Override
+        public Locator get(Object name) {
+            return locators.get(name);
+        }
+
+        @Override
+        public Locator put(String name, Locator locator) {
+            objectNameIndex.add(name);
+            return locators.put(name, locator);
+        }
+
+        @Override
+        public Locator remove(Object name) {
+            if (name instanceof String) {
+                objectNameIndex.remove((String) name);
+            }
+            return locators.remove(name);
+        }
+
+        @Override
+        public void clear() {
+            objectNameIndex.clear();
+            locators.clear();
+        }
+    }
 }
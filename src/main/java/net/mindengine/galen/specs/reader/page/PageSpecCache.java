@@ -0,0 +1,172 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import net.mindengine.galen.config.GalenConfig;
+
+/**
+ * Thread-safe LRU cache of page specs which were parsed without a page.
+ * The key is made of spec path, the hash of its content and all properties which were passed to the reader.
+ * Specs that use page dependent javascript functions (count, find, findAll) are stored
+ * only as markers so that readers know they should be parsed against the page every time.
+ */
+public class PageSpecCache {
+
+    private static PageSpecCache instance;
+
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+
+    public PageSpecCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PageSpecCache.Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized static PageSpecCache getInstance() {
+        if (instance == null) {
+            instance = new PageSpecCache(GalenConfig.getConfig().getIntProperty(GalenConfig.SPEC_CACHE_SIZE, 0));
+        }
+        return instance;
+    }
+
+    /**
+     * Drops the shared cache so that it is created again using current configuration
+     */
+    public synchronized static void reset() {
+        instance = null;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isUpToDate()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public static String createKey(String filePath, byte[] content, Properties properties) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder key = new StringBuilder(filePath);
+        key.append('\n');
+        for (byte b : md.digest(content)) {
+            key.append(String.format("%02x", b));
+        }
+
+        List<String> names = new ArrayList<String>(properties.stringPropertyNames());
+        Collections.sort(names);
+        for (String name : names) {
+            key.append('\n').append(name).append('=').append(properties.getProperty(name));
+        }
+        return key.toString();
+    }
+
+    public static class Entry {
+        private final PageSpec pageSpec;
+        private final Properties setProperties;
+        private final Map<String, Long> dependencies;
+
+        private Entry(PageSpec pageSpec, Properties setProperties, Map<String, Long> dependencies) {
+            this.pageSpec = pageSpec;
+            this.setProperties = setProperties;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @param pageSpec - page spec that was parsed without a page
+         * @param setProperties - properties that were set in the spec via "@@ set" instruction
+         * @param dependencyPaths - all imported specs and javascript files
+         */
+        public static Entry pageIndependent(PageSpec pageSpec, Properties setProperties, Iterable<String> dependencyPaths) {
+            Map<String, Long> dependencies = new HashMap<String, Long>();
+            for (String path : dependencyPaths) {
+                File file = new File(path);
+                if (file.exists()) {
+                    dependencies.put(path, file.lastModified());
+                }
+            }
+            return new Entry(pageSpec, setProperties, dependencies);
+        }
+
+        public static Entry pageDependent() {
+            return new Entry(null, null, Collections.<String, Long>emptyMap());
+        }
+
+        public boolean isPageDependent() {
+            return pageSpec == null;
+        }
+
+        public PageSpec getPageSpec() {
+            return pageSpec;
+        }
+
+        public Properties getSetProperties() {
+            return setProperties;
+        }
+
+        public Set<String> getDependencyPaths() {
+            return dependencies.keySet();
+        }
+
+        private boolean isUpToDate() {
+            for (Map.Entry<String, Long> dependency : dependencies.entrySet()) {
+                if (new File(dependency.getKey()).lastModified() != dependency.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import net.mindengine.galen.specs.page.Locator;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles page specs into a binary form which is stored next to the spec file and is loaded
+ * by PageSpecReader without parsing the spec again. A compiled spec is used only when it is newer
+ * than the spec and all its imported specs and javascript files and when the reader was given
+ * the same properties which were used for compiling.
+ * Specs that use page dependent javascript functions (count, find, findAll) are not compiled.
+ */
+public class PageSpecCompiler {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PageSpecCompiler.class);
+
+    public static final String COMPILED_SPEC_SUFFIX = ".compiled";
+
+    private static final int FORMAT_VERSION = 1;
+
+    public static File getCompiledFile(String specPath) {
+        return new File(specPath + COMPILED_SPEC_SUFFIX);
+    }
+
+    /**
+     * @param specPath - path to spec file
+     * @param properties - properties with which the spec is going to be read
+     * @return true if spec was compiled and false if it depends on page and should be parsed every time
+     */
+    public boolean compile(String specPath, Properties properties) throws IOException {
+        File specFile = new File(specPath);
+        if (!specFile.isFile()) {
+            throw new FileNotFoundException("Can't find file: " + specPath);
+        }
+
+        File compiledFile = getCompiledFile(specPath);
+        if (compiledFile.exists() && !compiledFile.delete()) {
+            throw new IOException("Can't delete previously compiled spec: " + compiledFile.getPath());
+        }
+
+        PageSpecCache.Entry entry = new PageSpecReader(properties, null).readPageIndependently(FileUtils.readFileToByteArray(specFile), specPath);
+        if (entry.isPageDependent()) {
+            return false;
+        }
+
+        PageSpec pageSpec = entry.getPageSpec();
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(compiledFile)));
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeObject(toSortedMap(properties));
+            out.writeObject(toSortedMap(entry.getSetProperties()));
+            out.writeObject(new ArrayList<String>(entry.getDependencyPaths()));
+            out.writeObject(new HashMap<String, Locator>(pageSpec.getObjects()));
+            out.writeObject(new HashMap<String, Locator>(pageSpec.getMultiObjects()));
+            out.writeObject(new ArrayList<TaggedPageSection>(pageSpec.getSections()));
+        }
+        catch (IOException ex) {
+            out.close();
+            compiledFile.delete();
+            throw ex;
+        }
+        out.close();
+        return true;
+    }
+
+    /**
+     * Loads previously compiled spec. Rules are not stored in compiled specs
+     * so it should be used only for specs which are not imported by other specs.
+     * @return entry with page spec and properties which were set in it
+     * or null if there is no compiled spec or it is outdated
+     */
+    @SuppressWarnings("unchecked")
+    public PageSpecCache.Entry load(String specPath, Properties properties) {
+        File compiledFile = getCompiledFile(specPath);
+        if (!compiledFile.isFile()) {
+            return null;
+        }
+
+        long compiledTime = compiledFile.lastModified();
+        if (isModifiedAfter(specPath, compiledTime)) {
+            return null;
+        }
+
+        try {
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(compiledFile)));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                if (!toSortedMap(properties).equals(in.readObject())) {
+                    return null;
+                }
+
+                Properties setProperties = new Properties();
+                setProperties.putAll((Map<String, String>) in.readObject());
+
+                List<String> dependencyPaths = (List<String>) in.readObject();
+                for (String dependencyPath : dependencyPaths) {
+                    if (isModifiedAfter(dependencyPath, compiledTime)) {
+                        return null;
+                    }
+                }
+
+                PageSpec pageSpec = new PageSpec();
+                pageSpec.setObjects((Map<String, Locator>) in.readObject());
+                pageSpec.setMultiObjects((Map<String, Locator>) in.readObject());
+                pageSpec.setSections(new LinkedList<TaggedPageSection>((List<TaggedPageSection>) in.readObject()));
+
+                return PageSpecCache.Entry.pageIndependent(pageSpec, setProperties, dependencyPaths);
+            }
+            finally {
+                in.close();
+            }
+        }
+        catch (Exception ex) {
+            LOG.warn("Can't load compiled spec " + compiledFile.getPath() + ", it will be parsed instead", ex);
+            return null;
+        }
+    }
+
+    private static boolean isModifiedAfter(String path, long time) {
+        File file = new File(path);
+        return !file.exists() || file.lastModified() > time;
+    }
+
+    private static TreeMap<String, String> toSortedMap(Properties properties) {
+        TreeMap<String, String> map = new TreeMap<String, String>();
+        for (String name : properties.stringPropertyNames()) {
+            map.put(name, properties.getProperty(name));
+        }
+        return map;
+    }
+}
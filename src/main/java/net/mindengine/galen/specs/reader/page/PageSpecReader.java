@@ -20,6 +20,7 @@ import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.parser.*;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.Place;
+import net.mindengine.galen.specs.reader.SpecReader;
 import net.mindengine.galen.specs.reader.page.rules.Rule;
 import net.mindengine.galen.specs.reader.page.rules.RuleParser;
 import net.mindengine.galen.utils.GalenUtils;
@@ -28,8 +29,8 @@ import net.mindengine.galen.utils.Visitor;
 import java.io.*;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.regex.Pattern;
 
+import org.apache.commons.io.IOUtils;
 import org.openqa.selenium.WebDriverException;
 
 public class PageSpecReader implements VarsParserJsFunctions {
@@ -42,6 +43,18 @@ public class PageSpecReader implements VarsParserJsFunctions {
     // Used to store information about spec files that were already loaded
     private Set<String> processedFileIds;
 
+    // Paths of all imported specs and javascript files, needed to invalidate cached specs
+    private Set<String> loadedFilePaths;
+
+    // Set when javascript used functions which depend on page, so the spec can't be cached
+    private boolean pageDependent = false;
+
+    // Set once this reader has read any spec, after that its javascript state and imports may affect other specs
+    private boolean hasReadSpecs = false;
+
+    // Spec which was taken from cache, so it wasn't parsed by this reader and its javascript state and imports are unknown
+    private SkippedSpec skippedSpec;
+
     /*
      *  This field is needed to look up early building of objects
      *  so they could be used within js functions
@@ -57,6 +70,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
         }
         this.varsContext = new VarsContext(this.properties, this, this);
         this.processedFileIds = new HashSet<String>();
+        this.loadedFilePaths = new HashSet<String>();
         this.page = page;
     }
 
@@ -71,12 +85,29 @@ public class PageSpecReader implements VarsParserJsFunctions {
         this.varsContext = pageSpecReader.varsContext;
         pageSpecReader.addChild(this);
         this.processedFileIds = pageSpecReader.processedFileIds;
+        this.loadedFilePaths = pageSpecReader.loadedFilePaths;
         this.page = pageSpecReader.page;
     }
 
     // Needed to look up object created within child readers
     private List<PageSpecReader> childReaders = new LinkedList<PageSpecReader>();
 
+    private SpecReader specReader;
+
+    /**
+     * Returns a spec reader which is shared between all sections of spec file and its imports
+     * as long as they use the same properties
+     */
+    public SpecReader getSpecReader(Properties properties) {
+        if (parent != null) {
+            return parent.getSpecReader(properties);
+        }
+        if (specReader == null || specReader.getProperties() != properties) {
+            specReader = new SpecReader(properties);
+        }
+        return specReader;
+    }
+
 
     private void addChild(PageSpecReader pageSpecReader) {
         childReaders.add(pageSpecReader);
@@ -84,6 +115,23 @@ public class PageSpecReader implements VarsParserJsFunctions {
 
 
     public PageSpec read(String filePath) throws IOException {
+        if (parent == null && !hasReadSpecs) {
+            PageSpecCache.Entry compiled = new PageSpecCompiler().load(filePath, properties);
+            if (compiled != null) {
+                skippedSpec = new SkippedSpec(readFile(filePath), filePath, properties);
+                hasReadSpecs = true;
+
+                properties.putAll(compiled.getSetProperties());
+                pageSpec = compiled.getPageSpec();
+                return pageSpec;
+            }
+        }
+
+        PageSpecCache cache = PageSpecCache.getInstance();
+        if (parent == null && !hasReadSpecs && cache.isEnabled()) {
+            return readUsingCache(cache, readFile(filePath), filePath);
+        }
+
         InputStream is = GalenUtils.findFileOrResourceAsStream(filePath);
         if (is == null) {
             throw new FileNotFoundException("Can't find file or resource: " + filePath);
@@ -91,12 +139,94 @@ public class PageSpecReader implements VarsParserJsFunctions {
         return read(is, filePath, GalenUtils.getParentForFile(filePath));
     }
 
+    private static byte[] readFile(String filePath) throws IOException {
+        InputStream is = GalenUtils.findFileOrResourceAsStream(filePath);
+        if (is == null) {
+            throw new FileNotFoundException("Can't find file or resource: " + filePath);
+        }
+        try {
+            return IOUtils.toByteArray(is);
+        }
+        finally {
+            is.close();
+        }
+    }
+
+    private PageSpec readUsingCache(PageSpecCache cache, byte[] content, String filePath) throws IOException {
+        String key = PageSpecCache.createKey(filePath, content, properties);
+
+        PageSpecCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            entry = readPageIndependently(content, filePath);
+            cache.put(key, entry);
+        }
+
+        if (entry.isPageDependent()) {
+            return read(new ByteArrayInputStream(content), filePath, GalenUtils.getParentForFile(filePath));
+        }
+
+        skippedSpec = new SkippedSpec(content, filePath, properties);
+        hasReadSpecs = true;
+
+        properties.putAll(entry.getSetProperties());
+        pageSpec = entry.getPageSpec().copy();
+        return pageSpec;
+    }
+
+    /**
+     * Parses the spec which was previously taken from cache, so that its javascript functions, variables and imports
+     * are available for the next specs read by this reader just like without cache
+     */
+    private void parseSkippedSpec() throws IOException {
+        if (skippedSpec != null) {
+            SkippedSpec spec = skippedSpec;
+            skippedSpec = null;
+
+            properties.clear();
+            properties.putAll(spec.properties);
+            read(new ByteArrayInputStream(spec.content), spec.filePath, GalenUtils.getParentForFile(spec.filePath));
+        }
+    }
+
+    PageSpecCache.Entry readPageIndependently(byte[] content, String filePath) throws IOException {
+        Properties readerProperties = new Properties();
+        readerProperties.putAll(properties);
+
+        PageSpecReader reader = new PageSpecReader(readerProperties, null);
+        PageSpec spec = reader.read(new ByteArrayInputStream(content), filePath, GalenUtils.getParentForFile(filePath));
+
+        if (reader.pageDependent) {
+            return PageSpecCache.Entry.pageDependent();
+        }
+
+        Properties setProperties = new Properties();
+        for (String name : readerProperties.stringPropertyNames()) {
+            String value = readerProperties.getProperty(name);
+            if (!value.equals(properties.getProperty(name))) {
+                setProperties.setProperty(name, value);
+            }
+        }
+        return PageSpecCache.Entry.pageIndependent(spec, setProperties, reader.loadedFilePaths);
+    }
+
+    private void markPageDependent() {
+        PageSpecReader reader = this;
+        while (reader != null) {
+            reader.pageDependent = true;
+            reader = reader.parent;
+        }
+    }
+
 
     public PageSpec read(InputStream inputStream) throws IOException {
         return read(inputStream, "<unknown location>", null);
     }
 
     public PageSpec read(InputStream inputStream, String fileLocation, String contextPath) throws IOException {
+        if (parent == null) {
+            parseSkippedSpec();
+        }
+        hasReadSpecs = true;
         this.pageSpec = new PageSpec();
 
         PageSpecLineProcessor lineProcessor = new PageSpecLineProcessor(properties, contextPath, this, pageSpec);
@@ -125,7 +255,8 @@ public class PageSpecReader implements VarsParserJsFunctions {
 
     @Override
     public int count(String regex) {
-        final Pattern pattern = GalenUtils.convertObjectNameRegex(regex);
+        markPageDependent();
+        final String objectRegex = GalenUtils.convertObjectNameRegexToJava(regex);
         final Set<String> collectedNames = new HashSet<String>();
 
 
@@ -133,11 +264,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
             @Override
             public void visit(PageSpecReader pageSpecReader) {
                 if (pageSpecReader.pageSpec != null) {
-                    for (String name : pageSpecReader.pageSpec.getObjects().keySet()) {
-                        if (pattern.matcher(name).matches()) {
-                            collectedNames.add(name);
-                        }
-                    }
+                    collectedNames.addAll(pageSpecReader.pageSpec.findObjectNames(objectRegex));
                 }
             }
         });
@@ -168,14 +295,15 @@ public class PageSpecReader implements VarsParserJsFunctions {
 
     @Override
     public JsPageElement[] findAll(String regex) {
-        final Pattern pattern = GalenUtils.convertObjectNameRegex(regex);
+        markPageDependent();
+        final String objectRegex = GalenUtils.convertObjectNameRegexToJava(regex);
 
         final ArrayList<JsPageElement> list = new ArrayList<JsPageElement>();
 
         visitAllReaders(new Visitor<PageSpecReader>() {
             @Override
             public void visit(PageSpecReader pageSpecReader) {
-                List<JsPageElement> jsElements = pageSpecReader.findJsPageElements(pattern);
+                List<JsPageElement> jsElements = pageSpecReader.findJsPageElements(objectRegex);
 
                 for (JsPageElement jsPageElement : jsElements) {
                     if (!containsPageElementWithName(list, jsPageElement.name)) {
@@ -207,19 +335,16 @@ public class PageSpecReader implements VarsParserJsFunctions {
         return list;
     }
 
-    private List<JsPageElement> findJsPageElements(Pattern pattern) {
+    private List<JsPageElement> findJsPageElements(String objectRegex) {
         List<JsPageElement> list = new LinkedList<JsPageElement>();
 
         if (pageSpec != null) {
-            for (Map.Entry<String, Locator> entry : pageSpec.getObjects().entrySet()) {
-                String objectName = entry.getKey();
-                if (pattern.matcher(objectName).matches()) {
-                    Locator locator = pageSpec.getObjectLocator(objectName);
-                    if (locator != null && page != null) {
-                        PageElement pageElement = page.getObject(objectName, locator);
-                        if (pageElement != null) {
-                            list.add(new JsPageElement(objectName, pageElement));
-                        }
+            for (String objectName : pageSpec.findObjectNames(objectRegex)) {
+                Locator locator = pageSpec.getObjectLocator(objectName);
+                if (locator != null && page != null) {
+                    PageElement pageElement = page.getObject(objectName, locator);
+                    if (pageElement != null) {
+                        list.add(new JsPageElement(objectName, pageElement));
                     }
                 }
             }
@@ -236,6 +361,12 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public void runJavascriptFromFile(String filePath, String contextPath) {
+        if (!filePath.startsWith("/") && contextPath != null && !contextPath.isEmpty()) {
+            loadedFilePaths.add(contextPath + File.separator + filePath);
+        }
+        else {
+            loadedFilePaths.add(filePath);
+        }
 
         varsContext.runJavascriptFromFile(filePath, contextPath);
     }
@@ -258,6 +389,8 @@ public class PageSpecReader implements VarsParserJsFunctions {
             path = filePath;
         }
 
+        loadedFilePaths.add(path);
+
         String fileId = GalenUtils.calculateFileId(path);
         if (!processedFileIds.contains(fileId)) {
             processedFileIds.add(fileId);
@@ -273,7 +406,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public List<PageSpecRule> getRules() {
-        List<PageSpecRule> allRules = pageSpec.getRules();
+        List<PageSpecRule> allRules = new LinkedList<PageSpecRule>(pageSpec.getRules());
 
         if (parent != null) {
             allRules.addAll(parent.getRules());
@@ -286,4 +419,16 @@ public class PageSpecReader implements VarsParserJsFunctions {
         Rule rule = new RuleParser().parse(ruleExpression);
         this.pageSpec.addRuleProcessor(rule, ruleProcessor);
     }
+
+    private static class SkippedSpec {
+        private final byte[] content;
+        private final String filePath;
+        private final Properties properties = new Properties();
+
+        private SkippedSpec(byte[] content, String filePath, Properties properties) {
+            this.content = content;
+            this.filePath = filePath;
+            this.properties.putAll(properties);
+        }
+    }
 }
@@ -95,7 +95,12 @@ public class StateDoingSection extends State {
         this.section = section;
         this.contextPath = contextPath;
         this.setPageSpecReader(pageSpecReader);
-        this.specReader = new SpecReader(properties);
+        if (pageSpecReader != null) {
+            this.specReader = pageSpecReader.getSpecReader(properties);
+        }
+        else {
+            this.specReader = new SpecReader(properties);
+        }
     }
 
     @Override
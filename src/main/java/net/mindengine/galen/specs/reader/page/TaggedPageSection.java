@@ -25,6 +25,9 @@ import java.util.List;
  * Created by ishubin on 2015/02/23.
  */
 public class TaggedPageSection extends PageSection {
+
+    private static final long serialVersionUID = 1L;
+
     private List<String> tags;
     private List<ConditionalBlock> conditionalBlocks;
 
@@ -20,6 +20,7 @@ import java.util.List;
 
 import net.mindengine.galen.api.Galen;
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.reports.nodes.LayoutReportNode;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.reports.nodes.TestReportNode;
@@ -31,18 +32,27 @@ import net.mindengine.galen.validation.ValidationListener;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static net.mindengine.galen.utils.GalenUtils.toCommaSeparated;
 
 public class GalenPageActionCheck extends GalenPageAction {
 
+    private final static Logger LOG = LoggerFactory.getLogger(GalenPageActionCheck.class);
+
     private List<String> specs;
     private List<String> includedTags;
     private List<String> excludedTags;
+    private Integer stableTimeout;
 
     
     @Override
     public void execute(TestReport report, Browser browser, GalenPageTest pageTest, ValidationListener validationListener) throws IOException {
+        if (stableTimeout != null) {
+            waitUntilStable(report, browser);
+        }
+
         LayoutReport layoutReport = Galen.checkLayout(browser, getSpecs(), getIncludedTags(), getExcludedTags(), getCurrentProperties(), validationListener);
 
         if (report != null) {
@@ -56,6 +66,16 @@ public class GalenPageActionCheck extends GalenPageAction {
     }
 
 
+    private void waitUntilStable(TestReport report, Browser browser) throws IOException {
+        int frames = GalenConfig.getConfig().getStableFrames();
+        if (!LayoutStability.waitUntilStable(browser, getSpecs(), getCurrentProperties(), frames, stableTimeout)) {
+            LOG.warn("Layout did not become stable in " + stableTimeout + " ms, checking it anyway");
+            if (report != null) {
+                report.warn("Layout did not become stable in " + stableTimeout + " ms");
+            }
+        }
+    }
+
     public GalenPageActionCheck withSpecs(List<String> specFilePaths) {
         this.setSpecs(specFilePaths);
         return this;
@@ -87,6 +107,19 @@ public class GalenPageActionCheck extends GalenPageAction {
         return this;
     }
 
+    public GalenPageActionCheck withStableTimeout(Integer stableTimeout) {
+        this.setStableTimeout(stableTimeout);
+        return this;
+    }
+
+    public Integer getStableTimeout() {
+        return stableTimeout;
+    }
+
+    public void setStableTimeout(Integer stableTimeout) {
+        this.stableTimeout = stableTimeout;
+    }
+
     public List<String> getExcludedTags() {
         return excludedTags;
     }
@@ -102,6 +135,7 @@ public class GalenPageActionCheck extends GalenPageAction {
             .append(specs)
             .append(includedTags)
             .append(excludedTags)
+            .append(stableTimeout)
             .toHashCode(); //@formatter:on
     }
     
@@ -120,6 +154,7 @@ public class GalenPageActionCheck extends GalenPageAction {
             .append(specs, rhs.specs)
             .append(includedTags, rhs.includedTags)
             .append(excludedTags, rhs.excludedTags)
+            .append(stableTimeout, rhs.stableTimeout)
             .isEquals(); //@formatter:on
     }
     
@@ -129,6 +164,7 @@ public class GalenPageActionCheck extends GalenPageAction {
             .append("specs", specs)
             .append("includedTags", includedTags)
             .append("excludedTags", excludedTags)
+            .append("stableTimeout", stableTimeout)
             .toString(); //@formatter:on
     }
 
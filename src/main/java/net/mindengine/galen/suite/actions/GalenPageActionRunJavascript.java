@@ -55,7 +55,12 @@ public class GalenPageActionRunJavascript extends GalenPageAction{
         provideWrappedWebDriver(js, browser);
         
         js.eval("var arg = " + jsonArguments);
-        js.eval(scriptFileReader, javascriptPath);
+        try {
+            js.eval(scriptFileReader, javascriptPath);
+        }
+        finally {
+            browser.invalidatePage();
+        }
     }
     
     private void provideWrappedWebDriver(GalenJsExecutor jsExecutor, Browser browser) {
@@ -15,13 +15,17 @@
 ******************************************************************************/
 package net.mindengine.galen.suite.actions;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.selenium.BrowserScripts;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.suite.GalenPageAction;
@@ -31,9 +35,14 @@ import net.mindengine.galen.validation.ValidationListener;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class GalenPageActionWait extends GalenPageAction {
 
+    private final static Logger LOG = LoggerFactory.getLogger(GalenPageActionWait.class);
+
     private int timeout;
     private List<Until> untilElements;
     
@@ -131,26 +140,89 @@ public class GalenPageActionWait extends GalenPageAction {
 
     @Override
     public void execute(TestReport report, Browser browser, GalenPageTest pageTest, ValidationListener validationListener) throws Exception {
-        Page page = browser.getPage();
-        
-        if (untilElements == null || untilElements.isEmpty()) {
-            Thread.sleep(timeout);
-        }
-        else  {
-            // waiting for elements
-            int period = 500;
-            int tries = timeout / period;
-            while(tries-- > 0) {
-                Thread.sleep(period);
-                if (checkAllConditions(page, null)) {
-                    return;
-                }
+        browser.invalidatePage();
+        try {
+            if (untilElements == null || untilElements.isEmpty()) {
+                Thread.sleep(timeout);
             }
-            
+            else if (!waitInBrowser(browser)) {
+                waitForConditions(browser.getPage());
+            }
+        }
+        finally {
+            browser.invalidatePage();
+        }
+    }
+
+    /**
+     * Lets the browser check all conditions on every change of the page instead of polling them
+     * @return false if conditions could not be checked in browser and should be polled instead
+     */
+    private boolean waitInBrowser(Browser browser) throws TimeoutException {
+        if (!(browser instanceof SeleniumBrowser) || !GalenConfig.getConfig().shouldWaitInBrowser()) {
+            return false;
+        }
+        WebDriver driver = ((SeleniumBrowser) browser).getDriver();
+
+        List<List<Object>> conditions = new ArrayList<List<Object>>(untilElements.size());
+        for (Until until : untilElements) {
+            List<Object> condition = new ArrayList<Object>(4);
+            condition.add(until.getLocator().getLocatorType());
+            condition.add(until.getLocator().getLocatorValue());
+            condition.add(until.getLocator().getIndex());
+            condition.add(until.getType().toString());
+            conditions.add(condition);
+        }
+
+        Object result;
+        try {
+            result = BrowserScripts.executeAsync(driver, timeout, "/selenium/wait-until.js", conditions, timeout);
+        }
+        catch (org.openqa.selenium.TimeoutException ex) {
+            // the whole timeout has already passed in browser, so conditions are only checked once more
+            LOG.warn("Waiting in browser timed out, checking conditions once more");
+            checkConditionsOnce(browser.getPage());
+            return true;
+        }
+        catch (Exception ex) {
+            LOG.warn("Couldn't wait in browser, falling back to polling", ex);
+            return false;
+        }
+
+        if (!(result instanceof List)) {
+            LOG.warn("Waiting in browser returned unexpected result, falling back to polling");
+            return false;
+        }
+
+        List<?> failedIndices = (List<?>) result;
+        if (!failedIndices.isEmpty()) {
             StringBuffer results = new StringBuffer();
-            if (!checkAllConditions(page, results)) {
-                throw new TimeoutException("Failed waiting for:\n" + results.toString());
+            for (Object index : failedIndices) {
+                appendFailure(results, untilElements.get(((Number) index).intValue()));
             }
+            throw new TimeoutException("Failed waiting for:\n" + results.toString());
+        }
+        return true;
+    }
+
+    private void waitForConditions(Page page) throws Exception {
+        // waiting for elements
+        int period = 500;
+        int tries = timeout / period;
+        while(tries-- > 0) {
+            Thread.sleep(period);
+            if (checkAllConditions(page, null)) {
+                return;
+            }
+        }
+
+        checkConditionsOnce(page);
+    }
+
+    private void checkConditionsOnce(Page page) throws TimeoutException {
+        StringBuffer results = new StringBuffer();
+        if (!checkAllConditions(page, results)) {
+            throw new TimeoutException("Failed waiting for:\n" + results.toString());
         }
     }
 
@@ -165,13 +237,17 @@ public class GalenPageActionWait extends GalenPageAction {
             if (!checkElement(element, until)) {
                 state = false;
                 if (result != null) {
-                    result.append(" - " + until.getType().toString() + " " + until.getLocator().prettyString() + "\n");
+                    appendFailure(result, until);
                 }
             }
         }
         return state;
     }
 
+    private void appendFailure(StringBuffer result, Until until) {
+        result.append(" - " + until.getType().toString() + " " + until.getLocator().prettyString() + "\n");
+    }
+
     private boolean checkElement(PageElement element, Until until) {
         if (until.getType() == UntilType.VISIBLE) {
             return element.isVisible();
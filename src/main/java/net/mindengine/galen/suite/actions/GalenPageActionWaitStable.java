@@ -0,0 +1,124 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.suite.actions;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.reports.TestReport;
+import net.mindengine.galen.suite.GalenPageAction;
+import net.mindengine.galen.suite.GalenPageTest;
+import net.mindengine.galen.validation.ValidationListener;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Waits until objects of the given page specs stop changing their location and size
+ */
+public class GalenPageActionWaitStable extends GalenPageAction {
+
+    private int timeout;
+    private List<String> specs;
+    private Integer frames;
+
+    @Override
+    public void execute(TestReport report, Browser browser, GalenPageTest pageTest, ValidationListener validationListener) throws Exception {
+        int requiredFrames = frames != null ? frames : GalenConfig.getConfig().getStableFrames();
+
+        if (!LayoutStability.waitUntilStable(browser, specs, getCurrentProperties(), requiredFrames, timeout)) {
+            throw new TimeoutException("Layout did not become stable in " + timeout + " ms");
+        }
+    }
+
+    public GalenPageActionWaitStable withTimeout(int timeout) {
+        setTimeout(timeout);
+        return this;
+    }
+
+    public GalenPageActionWaitStable withSpecs(List<String> specs) {
+        setSpecs(specs);
+        return this;
+    }
+
+    public GalenPageActionWaitStable withFrames(Integer frames) {
+        setFrames(frames);
+        return this;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    public List<String> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(List<String> specs) {
+        this.specs = specs;
+    }
+
+    public Integer getFrames() {
+        return frames;
+    }
+
+    public void setFrames(Integer frames) {
+        this.frames = frames;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this) //@formatter:off
+            .append("timeout", timeout)
+            .append("specs", specs)
+            .append("frames", frames)
+            .toString(); //@formatter:on
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder() //@formatter:off
+            .append(timeout)
+            .append(specs)
+            .append(frames)
+            .toHashCode(); //@formatter:on
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null)
+            return false;
+        if (obj == this)
+            return true;
+        if (!(obj instanceof GalenPageActionWaitStable))
+            return false;
+
+        GalenPageActionWaitStable rhs = (GalenPageActionWaitStable)obj;
+
+        return new EqualsBuilder() //@formatter:off
+            .append(timeout, rhs.timeout)
+            .append(specs, rhs.specs)
+            .append(frames, rhs.frames)
+            .isEquals(); //@formatter:on
+    }
+}
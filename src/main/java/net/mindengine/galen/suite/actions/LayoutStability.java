@@ -0,0 +1,88 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.suite.actions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.page.selenium.BrowserScripts;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits until objects of page specs stop moving, e.g. when animations are finished and lazy images are loaded.
+ * Geometry of all objects is sampled in browser on every animation frame, so the wait is over
+ * as soon as it did not change for the required amount of consecutive frames
+ */
+public class LayoutStability {
+
+    private final static Logger LOG = LoggerFactory.getLogger(LayoutStability.class);
+
+    /**
+     * @return false if layout was still changing when timeout expired.
+     * Browsers which cannot run the script in page are considered to be stable
+     */
+    public static boolean waitUntilStable(Browser browser, List<String> specPaths, Properties properties, int frames, int timeout) throws IOException {
+        if (frames < 1) {
+            throw new IllegalArgumentException("Amount of frames should be at least 1 but was " + frames);
+        }
+        if (!(browser instanceof SeleniumBrowser)) {
+            return true;
+        }
+        WebDriver driver = ((SeleniumBrowser) browser).getDriver();
+
+        List<List<Object>> jsLocators = new ArrayList<List<Object>>();
+        PageSpecReader reader = new PageSpecReader(properties, browser.getPage());
+        for (String specPath : specPaths) {
+            PageSpec pageSpec = reader.read(specPath);
+            for (Locator locator : pageSpec.getObjects().values()) {
+                jsLocators.add(jsLocator(locator, locator.getIndex()));
+            }
+            for (Locator locator : pageSpec.getMultiObjects().values()) {
+                jsLocators.add(jsLocator(locator, 0));
+            }
+        }
+
+        try {
+            Object result = BrowserScripts.executeAsync(driver, timeout, "/selenium/wait-stable.js", jsLocators, frames, timeout);
+            return !Boolean.FALSE.equals(result);
+        }
+        catch (Exception ex) {
+            LOG.warn("Couldn't check layout stability", ex);
+            return true;
+        }
+        finally {
+            browser.invalidatePage();
+        }
+    }
+
+    private static List<Object> jsLocator(Locator locator, int index) {
+        List<Object> jsLocator = new ArrayList<Object>(3);
+        jsLocator.add(locator.getLocatorType());
+        jsLocator.add(locator.getLocatorValue());
+        jsLocator.add(index);
+        return jsLocator;
+    }
+}
@@ -25,11 +25,19 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import javax.imageio.ImageIO;
@@ -57,6 +65,8 @@ public class GalenUtils {
     private final static Logger LOG = LoggerFactory.getLogger(GalenUtils.class);
     
     private static final String URL_REGEX = "[a-zA-Z0-9]+://.*";
+
+    private static final Map<String, FileId> fileIds = new ConcurrentHashMap<String, FileId>();
     public static final String JS_RETRIEVE_DEVICE_PIXEL_RATIO = "var pr = window.devicePixelRatio; if (pr != undefined && pr != null)return pr; else return 1.0;";
 
 
@@ -67,6 +77,30 @@ public class GalenUtils {
         return url.matches(URL_REGEX) || url.equals("-");
     }
     
+    /**
+     * @return origin of url (e.g. "http://example.com:8080") which cookies and storage belong to,
+     * or null for urls without host like "about:blank"
+     */
+    public static String getOrigin(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            URI uri = new URI(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            String origin = uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase();
+            if (uri.getPort() >= 0) {
+                origin += ":" + uri.getPort();
+            }
+            return origin;
+        }
+        catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
     public static String formatScreenSize(Dimension screenSize) {
         if (screenSize != null) {
             return String.format("%dx%d", screenSize.width, screenSize.height);
@@ -97,6 +131,16 @@ public class GalenUtils {
     
     
     public static File makeFullScreenshot(WebDriver driver) throws IOException, InterruptedException {
+        File file = File.createTempFile("screenshot", ".png");
+        ImageIO.write(makeFullScreenshotImage(driver), "png", file);
+        return file;
+    }
+
+    /**
+     * Scrolls through the whole page and stitches its screenshots in memory.
+     * Each captured tile is decoded and drawn in background while the next one is being captured
+     */
+    public static BufferedImage makeFullScreenshotImage(WebDriver driver) throws IOException, InterruptedException {
         // scroll up first
         scrollVerticallyTo(driver, 0);
         byte[] bytes = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
@@ -114,8 +158,6 @@ public class GalenUtils {
 
         int scrollHeight = (int)longScrollHeight;
 
-        File file = File.createTempFile("screenshot", ".png");
-
         int adaptedCapturedHeight = (int)(((double)capturedHeight) / devicePixelRatio);
 
         BufferedImage resultingImage;
@@ -130,23 +172,34 @@ public class GalenUtils {
             Graphics2D g2dTile = tiledImage.createGraphics();
             g2dTile.drawImage(image, 0,0, null);
 
-            
-            int scroll = 0;
-            for (int i = 0; i < times - 1; i++) {
-                scroll += scrollOffset;
-                scrollVerticallyTo(driver, scroll);
-                BufferedImage nextImage = ImageIO.read(new ByteArrayInputStream(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES)));
-                g2dTile.drawImage(nextImage, 0, (i+1) * capturedHeight, null);
+            // only one tile is drawn at a time, so the next capture never waits for more than a single decoding
+            ExecutorService decoder = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> previousTile = null;
+
+                int scroll = 0;
+                for (int i = 0; i < times - 1; i++) {
+                    scroll += scrollOffset;
+                    scrollVerticallyTo(driver, scroll);
+                    byte[] tile = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
+                    waitForTile(previousTile);
+                    previousTile = decoder.submit(drawTile(g2dTile, tile, (i+1) * capturedHeight, 0, devicePixelRatio));
+                }
+                if (leftover > 0) {
+                    scroll += scrollOffset;
+                    scrollVerticallyTo(driver, scroll);
+                    byte[] tile = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
+                    waitForTile(previousTile);
+                    previousTile = decoder.submit(drawTile(g2dTile, tile, times * capturedHeight, leftover, devicePixelRatio));
+                }
+
+                scrollVerticallyTo(driver, 0);
+
+                waitForTile(previousTile);
             }
-            if (leftover > 0) {
-                scroll += scrollOffset;
-                scrollVerticallyTo(driver, scroll);
-                BufferedImage nextImage = ImageIO.read(new ByteArrayInputStream(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES)));
-                BufferedImage lastPart = nextImage.getSubimage(0, nextImage.getHeight() - (int)(((double)leftover) * devicePixelRatio), nextImage.getWidth(), leftover);
-                g2dTile.drawImage(lastPart, 0, times * capturedHeight, null);
+            finally {
+                decoder.shutdownNow();
             }
-            
-            scrollVerticallyTo(driver, 0);
 
             resultingImage = tiledImage;
         }
@@ -158,8 +211,34 @@ public class GalenUtils {
             resultingImage = GalenUtils.resizeScreenshotIfNeeded(driver, resultingImage);
         }
 
-        ImageIO.write(resultingImage, "png", file);
-        return file;
+        return resultingImage;
+    }
+
+    /**
+     * @param leftover height of the bottom part of the screenshot which should be drawn or 0 for the whole screenshot
+     */
+    private static Callable<Void> drawTile(final Graphics2D graphics, final byte[] bytes, final int top, final int leftover, final double devicePixelRatio) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+                if (leftover > 0) {
+                    image = image.getSubimage(0, image.getHeight() - (int)(((double)leftover) * devicePixelRatio), image.getWidth(), leftover);
+                }
+                graphics.drawImage(image, 0, top, null);
+                return null;
+            }
+        };
+    }
+
+    private static void waitForTile(Future<?> tile) throws IOException, InterruptedException {
+        if (tile != null) {
+            try {
+                tile.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Couldn't decode screenshot", e.getCause());
+            }
+        }
     }
 
 
@@ -282,6 +361,18 @@ public class GalenUtils {
         }
     }
 
+    /**
+     * Takes a screenshot of visible part of page without saving it to file
+     */
+    public static BufferedImage takeScreenshotImage(WebDriver driver) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES)));
+
+        if (GalenConfig.getConfig().shouldAutoresizeScreenshots()) {
+            image = GalenUtils.resizeScreenshotIfNeeded(driver, image);
+        }
+        return image;
+    }
+
     public static File takeScreenshot(WebDriver driver) throws IOException {
         File file = ((TakesScreenshot)driver).getScreenshotAs(OutputType.FILE);
 
@@ -359,28 +450,75 @@ public class GalenUtils {
 
     }
 
-    public static String calculateFileId(String fullPath) throws NoSuchAlgorithmException, FileNotFoundException {
-        String fileName = new File(fullPath).getName();
-        MessageDigest md = MessageDigest.getInstance("MD5");
+    /**
+     * Calculates an id of file which consists of its name and MD5 hash of its content.
+     * Ids are cached by file path and its modification time so every file is read only once
+     */
+    public static String calculateFileId(String fullPath) throws NoSuchAlgorithmException, IOException {
+        File file = new File(fullPath);
+        String cacheKey;
+        long lastModified;
+        if (file.exists()) {
+            cacheKey = file.getAbsolutePath();
+            lastModified = file.lastModified();
+        }
+        else {
+            cacheKey = "resource:" + fullPath;
+            lastModified = -1;
+        }
+
+        FileId cachedId = fileIds.get(cacheKey);
+        if (cachedId != null && cachedId.lastModified == lastModified) {
+            return cachedId.id;
+        }
+
         InputStream is = GalenUtils.findFileOrResourceAsStream(fullPath);
-        new DigestInputStream(is, md);
-        byte [] hashBytes = md.digest();
-        
-        return fileName + convertHashBytesToString(hashBytes);
+        if (is == null) {
+            throw new FileNotFoundException("Can't find file or resource: " + fullPath);
+        }
+
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        DigestInputStream dis = new DigestInputStream(is, md);
+        try {
+            byte[] buffer = new byte[8192];
+            while (dis.read(buffer) != -1) {
+                // reading the whole stream so that digest is updated
+            }
+        }
+        finally {
+            dis.close();
+        }
+
+        String id = file.getName() + convertHashBytesToString(md.digest());
+        fileIds.put(cacheKey, new FileId(lastModified, id));
+        return id;
     }
 
     private static String convertHashBytesToString(byte[] hashBytes) {
         StringBuilder builder = new StringBuilder();
         for (byte b : hashBytes) {
-            builder.append(Integer.toHexString(0xFF & b));
+            builder.append(String.format("%02x", b));
         }
         return builder.toString();
     }
 
+    private static class FileId {
+        private final long lastModified;
+        private final String id;
+
+        private FileId(long lastModified, String id) {
+            this.lastModified = lastModified;
+            this.id = id;
+        }
+    }
+
 
     public static Pattern convertObjectNameRegex(String regex) {
-        String jRegex = regex.replace("#", "[0-9]+").replace("*", ".*");
-        return Pattern.compile(jRegex);
+        return Pattern.compile(convertObjectNameRegexToJava(regex));
+    }
+
+    public static String convertObjectNameRegexToJava(String regex) {
+        return regex.replace("#", "[0-9]+").replace("*", ".*");
     }
 
 
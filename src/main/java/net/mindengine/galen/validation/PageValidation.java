@@ -19,6 +19,7 @@ import static java.lang.String.format;
 import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.page.Page;
@@ -37,6 +38,7 @@ public class PageValidation {
     private PageSpec pageSpec;
     private ValidationListener validationListener;
     private SectionFilter sectionFilter;
+    private Map<String, PageElement> frozenElements;
 
     public PageValidation(Browser browser, Page page, PageSpec pageSpec, ValidationListener validationListener, SectionFilter sectionFilter) {
         this.setBrowser(browser);
@@ -83,7 +85,23 @@ public class PageValidation {
         this.pageSpec = pageSpec;
     }
 
+    /**
+     * Creates a copy of page validation which takes page elements only from the given map
+     * and never accesses the page
+     * @param frozenElements
+     * @return
+     */
+    public PageValidation withFrozenElements(Map<String, PageElement> frozenElements) {
+        PageValidation pageValidation = new PageValidation(browser, page, pageSpec, validationListener, sectionFilter);
+        pageValidation.frozenElements = frozenElements;
+        return pageValidation;
+    }
+
     public PageElement findPageElement(String objectName) {
+        if (frozenElements != null) {
+            return frozenElements.get(objectName);
+        }
+
         Locator objectLocator = pageSpec.getObjectLocator(objectName);
         if (objectLocator != null) {
             return page.getObject(objectName, objectLocator);
@@ -125,7 +143,10 @@ public class PageValidation {
     }
 
     private PageElement findPageElementOnPage(String objectName, Locator locator) {
-        if (locator != null) {
+        if (frozenElements != null) {
+            return frozenElements.get(objectName);
+        }
+        else if (locator != null) {
             return page.getObject(objectName, locator);
         }
         else {
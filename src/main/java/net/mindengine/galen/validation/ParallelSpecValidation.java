@@ -0,0 +1,292 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.FrozenPageElement;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.specs.Location;
+import net.mindengine.galen.specs.Range;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecComplex;
+import net.mindengine.galen.specs.SpecDirectionPosition;
+import net.mindengine.galen.specs.SpecObjectWithErrorRate;
+import net.mindengine.galen.specs.SpecRange;
+
+/**
+ * Evaluates specs which depend only on element geometry (inside, near, aligned, centered,
+ * above, below, left-of, right-of, width and height) in parallel.
+ * All elements used by the geometric specs of a section are frozen once on the calling thread,
+ * then the objects of the section are split into chunks, one per validation thread, so that each worker
+ * evaluates specs of many objects and never accesses the page. Specs which reference elements that
+ * could not be frozen are left for the calling thread.
+ */
+public class ParallelSpecValidation {
+
+    private static ExecutorService executor;
+
+    public synchronized static ExecutorService getExecutor() {
+        int threads = GalenConfig.getConfig().getValidationThreads();
+        if (threads < 2) {
+            return null;
+        }
+
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "galen-validation-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Freezes all elements of geometric specs and submits them for evaluation
+     * @param objectChecks - objects with their specs in the order in which they are going to be reported
+     * @return results of evaluation or null in case parallel validation is disabled or there is nothing to run in parallel
+     */
+    public static Results submit(PageValidation pageValidation, List<ObjectCheck> objectChecks) {
+        if (countGeometricSpecs(objectChecks) < 2) {
+            return null;
+        }
+
+        ExecutorService executor = getExecutor();
+        if (executor == null) {
+            return null;
+        }
+
+        boolean areaRequired = !GalenConfig.getConfig().shouldCheckVisibilityGlobally();
+        Map<String, PageElement> frozenElements = new HashMap<String, PageElement>();
+        Set<String> unavailableElements = new HashSet<String>();
+
+        final List<List<Spec>> specsToSubmit = new ArrayList<List<Spec>>(objectChecks.size());
+        for (ObjectCheck objectCheck : objectChecks) {
+            List<Spec> specs = new ArrayList<Spec>(objectCheck.specs.size());
+            for (Spec spec : objectCheck.specs) {
+                if (isGeometric(spec) && freezeAll(pageValidation, collectObjectNames(objectCheck.objectName, spec, areaRequired), frozenElements, unavailableElements)) {
+                    specs.add(spec);
+                }
+                else {
+                    specs.add(null);
+                }
+            }
+            specsToSubmit.add(specs);
+        }
+
+        final PageValidation frozenPageValidation = pageValidation.withFrozenElements(frozenElements);
+        final List<ObjectCheck> checks = objectChecks;
+
+        int chunkSize = (objectChecks.size() + GalenConfig.getConfig().getValidationThreads() - 1) / GalenConfig.getConfig().getValidationThreads();
+        List<Future<List<List<ValidationResult>>>> chunks = new ArrayList<Future<List<List<ValidationResult>>>>();
+
+        for (int chunkStart = 0; chunkStart < objectChecks.size(); chunkStart += chunkSize) {
+            final int from = chunkStart;
+            final int to = Math.min(chunkStart + chunkSize, objectChecks.size());
+
+            chunks.add(executor.submit(new Callable<List<List<ValidationResult>>>() {
+                @Override
+                public List<List<ValidationResult>> call() throws Exception {
+                    List<List<ValidationResult>> chunkResults = new ArrayList<List<ValidationResult>>(to - from);
+                    for (int i = from; i < to; i++) {
+                        List<ValidationResult> results = new ArrayList<ValidationResult>();
+                        for (Spec spec : specsToSubmit.get(i)) {
+                            results.add(spec != null ? checkFrozen(frozenPageValidation, checks.get(i).objectName, spec) : null);
+                        }
+                        chunkResults.add(results);
+                    }
+                    return chunkResults;
+                }
+            }));
+        }
+        return new Results(chunks, chunkSize);
+    }
+
+    /**
+     * @return result of spec or null in case it failed unexpectedly, so that it is checked again on the calling thread
+     * and fails there the same way as without parallel validation
+     */
+    private static ValidationResult checkFrozen(PageValidation frozenPageValidation, String objectName, Spec spec) {
+        try {
+            return frozenPageValidation.check(objectName, spec);
+        }
+        catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            else throw new RuntimeException(cause);
+        }
+    }
+
+    public static boolean isGeometric(Spec spec) {
+        return spec instanceof SpecComplex
+                || spec instanceof SpecObjectWithErrorRate
+                || spec instanceof SpecDirectionPosition
+                || spec instanceof SpecRange;
+    }
+
+    private static int countGeometricSpecs(List<ObjectCheck> objectChecks) {
+        int count = 0;
+        for (ObjectCheck objectCheck : objectChecks) {
+            for (Spec spec : objectCheck.specs) {
+                if (isGeometric(spec)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param objectNames - map of object names to a flag which tells whether the area of object is always needed
+     */
+    private static boolean freezeAll(PageValidation pageValidation, Map<String, Boolean> objectNames, Map<String, PageElement> frozenElements, Set<String> unavailableElements) {
+        for (Map.Entry<String, Boolean> object : objectNames.entrySet()) {
+            String objectName = object.getKey();
+            if (unavailableElements.contains(objectName)) {
+                return false;
+            }
+
+            FrozenPageElement frozenElement = (FrozenPageElement) frozenElements.get(objectName);
+            if (frozenElement == null) {
+                frozenElement = freeze(pageValidation, objectName);
+                if (frozenElement == null) {
+                    unavailableElements.add(objectName);
+                    return false;
+                }
+                frozenElements.put(objectName, frozenElement);
+            }
+
+            if (object.getValue() && !frozenElement.hasArea()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FrozenPageElement freeze(PageValidation pageValidation, String objectName) {
+        try {
+            return FrozenPageElement.freeze(pageValidation.findPageElement(objectName));
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static Map<String, Boolean> collectObjectNames(String objectName, Spec spec, boolean areaRequired) {
+        Map<String, Boolean> names = new LinkedHashMap<String, Boolean>();
+        names.put(objectName, areaRequired);
+
+        if (spec instanceof SpecComplex) {
+            SpecComplex specComplex = (SpecComplex) spec;
+            names.put(specComplex.getObject(), areaRequired);
+            if (specComplex.getLocations() != null) {
+                for (Location location : specComplex.getLocations()) {
+                    addPercentageObject(names, location.getRange());
+                }
+            }
+        }
+        else if (spec instanceof SpecObjectWithErrorRate) {
+            names.put(((SpecObjectWithErrorRate) spec).getObject(), areaRequired);
+        }
+        else if (spec instanceof SpecDirectionPosition) {
+            names.put(((SpecDirectionPosition) spec).getObject(), areaRequired);
+            addPercentageObject(names, ((SpecDirectionPosition) spec).getRange());
+        }
+        else if (spec instanceof SpecRange) {
+            addPercentageObject(names, ((SpecRange) spec).getRange());
+        }
+        return names;
+    }
+
+    private static void addPercentageObject(Map<String, Boolean> names, Range range) {
+        if (range != null && range.isPercentage() && range.getPercentageOfValue() != null) {
+            String valuePath = range.getPercentageOfValue();
+            int index = valuePath.indexOf("/");
+            if (index > 0) {
+                names.put(valuePath.substring(0, index), true);
+            }
+        }
+    }
+
+    /**
+     * Object with the list of its specs which should be checked
+     */
+    public static class ObjectCheck {
+        private final String objectName;
+        private final List<Spec> specs;
+
+        public ObjectCheck(String objectName, List<Spec> specs) {
+            this.objectName = objectName;
+            this.specs = specs;
+        }
+    }
+
+    public static class Results {
+        private final List<Future<List<List<ValidationResult>>>> chunks;
+        private final int chunkSize;
+
+        private Results(List<Future<List<List<ValidationResult>>>> chunks, int chunkSize) {
+            this.chunks = chunks;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Waits for the results of object check
+         * @param checkIndex - index of object check as it was submitted
+         * @return results in the same order as specs of object check.
+         * Specs which should be checked on the calling thread have null in their place
+         */
+        public List<ValidationResult> get(int checkIndex) {
+            return await(chunks.get(checkIndex / chunkSize)).get(checkIndex % chunkSize);
+        }
+    }
+}
@@ -15,10 +15,12 @@
 ******************************************************************************/
 package net.mindengine.galen.validation;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Pattern;
 
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.specs.page.*;
 import net.mindengine.galen.specs.reader.page.TaggedPageSection;
 import org.slf4j.Logger;
@@ -50,7 +52,14 @@ public class SectionValidation {
     public List<ValidationResult> check() {
         
         //Fetching all multi objects from page before validation
+        if (GalenConfig.getConfig().shouldTakePageSnapshot()) {
+            pageValidation.getPage().fetchObjectLists(pageValidation.getPageSpec().getMultiObjects().values());
+        }
         pageValidation.getPageSpec().updateMultiObjects(pageValidation.getPage());
+
+        if (GalenConfig.getConfig().shouldTakePageSnapshot()) {
+            pageValidation.getPage().takeSnapshot(pageValidation.getPageSpec().getObjects());
+        }
         
         List<ValidationResult> validationResults = new LinkedList<ValidationResult>();
         
@@ -90,16 +99,34 @@ public class SectionValidation {
 
     private List<ValidationResult> checkObjects(List<ObjectSpecs> objects, boolean shouldReport) {
         List<ValidationResult> validationResults = new LinkedList<ValidationResult>();
+
+        List<List<String>> allObjectNames = new ArrayList<List<String>>(objects.size());
+        for (ObjectSpecs object : objects) {
+            allObjectNames.add(findAllObjectNames(object.getObjectName()));
+        }
+
+        // Geometric specs of all objects are evaluated in parallel when it is enabled, but reported in the original order
+        ParallelSpecValidation.Results parallelResults = ParallelSpecValidation.submit(pageValidation, collectObjectChecks(objects, allObjectNames));
+        int checkIndex = 0;
+
+        Iterator<List<String>> objectNames = allObjectNames.iterator();
         for (ObjectSpecs object : objects) {
-            List<String> allObjectNames = findAllObjectNames(object.getObjectName());
-            for (String objectName : allObjectNames) {
+            for (String objectName : objectNames.next()) {
                 if (shouldReport) {
                     tellOnObject(objectName);
                 }
                 
-                validationResults.addAll(checkObject(objectName, object.getSpecs(), shouldReport));
+                validationResults.addAll(checkObject(objectName, object.getSpecs(), shouldReport, parallelResultsFor(parallelResults, checkIndex++)));
 
-                checkSpecGroups(objectName, object.getSpecGroups(), shouldReport);
+                if (object.getSpecGroups() != null) {
+                    for (SpecGroup specGroup : object.getSpecGroups()) {
+                        tellOnSpecGroup(specGroup);
+
+                        checkObject(objectName, specGroup.getSpecs(), shouldReport, parallelResultsFor(parallelResults, checkIndex++));
+
+                        tellOnAfterSpecGroup(specGroup);
+                    }
+                }
                 
                 if (shouldReport) {
                     tellOnAfterObject(objectName);
@@ -109,16 +136,31 @@ public class SectionValidation {
         return validationResults;
     }
 
-    private void checkSpecGroups(String objectName, List<SpecGroup> specGroups, boolean shouldReport) {
-        if (specGroups != null) {
-            for (SpecGroup specGroup : specGroups) {
-                tellOnSpecGroup(specGroup);
-
-                checkObject(objectName, specGroup.getSpecs(), shouldReport);
+    /**
+     * Collects specs of objects and their spec groups in the same order as they are checked
+     */
+    private List<ParallelSpecValidation.ObjectCheck> collectObjectChecks(List<ObjectSpecs> objects, List<List<String>> allObjectNames) {
+        List<ParallelSpecValidation.ObjectCheck> objectChecks = new ArrayList<ParallelSpecValidation.ObjectCheck>();
+        Iterator<List<String>> objectNames = allObjectNames.iterator();
+        for (ObjectSpecs object : objects) {
+            for (String objectName : objectNames.next()) {
+                objectChecks.add(new ParallelSpecValidation.ObjectCheck(objectName, object.getSpecs()));
 
-                tellOnAfterSpecGroup(specGroup);
+                if (object.getSpecGroups() != null) {
+                    for (SpecGroup specGroup : object.getSpecGroups()) {
+                        objectChecks.add(new ParallelSpecValidation.ObjectCheck(objectName, specGroup.getSpecs()));
+                    }
+                }
             }
         }
+        return objectChecks;
+    }
+
+    private List<ValidationResult> parallelResultsFor(ParallelSpecValidation.Results parallelResults, int checkIndex) {
+        if (parallelResults != null) {
+            return parallelResults.get(checkIndex);
+        }
+        else return null;
     }
 
     private List<ValidationResult> checkConditionalBlock(ConditionalBlock block) {
@@ -209,16 +251,7 @@ public class SectionValidation {
 
     private List<String> fetchUsingRegex(String simpleRegex) {
         String regex = simpleRegex.replace("#", "[0-9]+").replace("*", "[a-zA-Z0-9_]+");
-        Pattern pattern = Pattern.compile(regex);
-        
-        List<String> objectNames = new LinkedList<String>();
-        for (String objectName : pageValidation.getPageSpec().getObjects().keySet()) {
-            if (pattern.matcher(objectName).matches()) {
-                objectNames.add(objectName);
-            }
-        }
-        
-        return objectNames;
+        return pageValidation.getPageSpec().findObjectNames(regex);
     }
 
     private boolean isRegularExpression(String name) {
@@ -271,15 +304,29 @@ public class SectionValidation {
             }
         }
     }
-    private List<ValidationResult> checkObject(String objectName, List<Spec> specs, boolean shouldReport) {
+    /**
+     * @param parallelResults - results of specs which were already evaluated in parallel,
+     *                        null in place of spec which should be checked here
+     */
+    private List<ValidationResult> checkObject(String objectName, List<Spec> specs, boolean shouldReport, List<ValidationResult> parallelResults) {
         List<ValidationResult> validationResults = new LinkedList<ValidationResult>();
+
+        int specIndex = 0;
         for (Spec spec : specs) {
 
             if (shouldReport) {
                 tellBeforeSpec(pageValidation, objectName, spec);
             }
-            
-            ValidationResult result = pageValidation.check(objectName, spec);
+
+            ValidationResult result;
+            if (parallelResults != null && parallelResults.get(specIndex) != null) {
+                result = parallelResults.get(specIndex);
+            }
+            else {
+                result = pageValidation.check(objectName, spec);
+            }
+            specIndex++;
+
             if (result.getError()!= null) {
                 validationResults.add(result);
                 if (shouldReport) {
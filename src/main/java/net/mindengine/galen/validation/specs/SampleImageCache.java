@@ -0,0 +1,211 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation.specs;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.utils.GalenUtils;
+import net.mindengine.rainbow4j.ImageHandler;
+import net.mindengine.rainbow4j.Rainbow4J;
+import net.mindengine.rainbow4j.filters.BlurFilter;
+import net.mindengine.rainbow4j.filters.ContrastFilter;
+import net.mindengine.rainbow4j.filters.DenoiseFilter;
+import net.mindengine.rainbow4j.filters.ImageFilter;
+import net.mindengine.rainbow4j.filters.QuantinizeFilter;
+import net.mindengine.rainbow4j.filters.SaturationFilter;
+
+/**
+ * Thread-safe LRU cache of decoded sample images used in image specs.
+ * Images loaded from files are identified by their path, modification time and size,
+ * so that a changed sample is always loaded again. It also keeps the samples with already applied
+ * sample filters. The cache is limited by the approximate amount of memory taken by images
+ */
+public class SampleImageCache {
+
+    private static final long BYTES_PER_PIXEL = 4;
+    private static SampleImageCache instance;
+
+    private final long maxBytes;
+    private final Map<String, BufferedImage> images = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true);
+    private long usedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    public SampleImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized static SampleImageCache getInstance() {
+        if (instance == null) {
+            long maxMegabytes = GalenConfig.getConfig().getIntProperty(GalenConfig.SPEC_IMAGE_CACHE_SIZE, 0);
+            instance = new SampleImageCache(maxMegabytes * 1024 * 1024);
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public BufferedImage getImage(String imagePath) throws IOException {
+        String key = imageKey(imagePath);
+
+        BufferedImage image = get(key);
+        if (image == null) {
+            image = loadImage(imagePath);
+            put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Returns the sample image with the given filters applied to the specified area
+     * @return filtered image or null in case one of the filters is not known and could not be cached
+     */
+    public BufferedImage getFilteredImage(String imagePath, List<ImageFilter> filters, Rectangle area) throws IOException {
+        String filtersKey = filtersKey(filters);
+        if (filtersKey == null) {
+            return null;
+        }
+
+        String key = imageKey(imagePath) + "|" + area.x + "," + area.y + "," + area.width + "," + area.height + "|" + filtersKey;
+
+        BufferedImage filteredImage = get(key);
+        if (filteredImage == null) {
+            ImageHandler handler = new ImageHandler(getImage(imagePath));
+            for (ImageFilter filter : filters) {
+                handler.applyFilter(filter, area);
+            }
+            filteredImage = handler.getImage();
+            put(key, filteredImage);
+        }
+        return filteredImage;
+    }
+
+    private synchronized BufferedImage get(String key) {
+        BufferedImage image = images.get(key);
+        if (image != null) {
+            hits++;
+        }
+        else {
+            misses++;
+        }
+        return image;
+    }
+
+    private synchronized void put(String key, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > maxBytes) {
+            return;
+        }
+
+        BufferedImage previous = images.put(key, image);
+        if (previous != null) {
+            usedBytes -= sizeOf(previous);
+        }
+        usedBytes += size;
+
+        Iterator<BufferedImage> it = images.values().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= sizeOf(it.next());
+            it.remove();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return images.size();
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        usedBytes = 0;
+    }
+
+    private static BufferedImage loadImage(String imagePath) throws IOException {
+        InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
+        if (stream == null) {
+            throw new IOException("Can't find image: " + imagePath);
+        }
+        try {
+            return Rainbow4J.loadImage(stream);
+        }
+        finally {
+            stream.close();
+        }
+    }
+
+    private static String imageKey(String imagePath) {
+        File file = new File(imagePath);
+        if (file.exists()) {
+            return file.getAbsolutePath() + "|" + file.lastModified() + "|" + file.length();
+        }
+        else {
+            // resources from classpath are not expected to change
+            return "resource:" + imagePath;
+        }
+    }
+
+    private static String filtersKey(List<ImageFilter> filters) {
+        StringBuilder key = new StringBuilder();
+        for (ImageFilter filter : filters) {
+            if (filter instanceof BlurFilter) {
+                key.append("blur:").append(((BlurFilter) filter).getRadius());
+            }
+            else if (filter instanceof DenoiseFilter) {
+                key.append("denoise:").append(((DenoiseFilter) filter).getRadius());
+            }
+            else if (filter instanceof ContrastFilter) {
+                key.append("contrast:").append(((ContrastFilter) filter).getLevel());
+            }
+            else if (filter instanceof SaturationFilter) {
+                key.append("saturation:").append(((SaturationFilter) filter).getLevel());
+            }
+            else if (filter instanceof QuantinizeFilter) {
+                key.append("quantinize:").append(((QuantinizeFilter) filter).getColorsAmount());
+            }
+            else {
+                return null;
+            }
+            key.append(';');
+        }
+        return key.toString();
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+    }
+}
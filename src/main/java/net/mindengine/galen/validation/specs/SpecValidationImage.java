@@ -18,8 +18,22 @@ package net.mindengine.galen.validation.specs;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.PageElement;
@@ -30,6 +44,7 @@ import net.mindengine.galen.validation.*;
 import net.mindengine.rainbow4j.ComparisonOptions;
 import net.mindengine.rainbow4j.ImageCompareResult;
 import net.mindengine.rainbow4j.Rainbow4J;
+import net.mindengine.rainbow4j.filters.ImageFilter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +55,10 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
 
     private final static Logger LOG = LoggerFactory.getLogger(SpecValidationImage.class);
 
+    private static final int FINGERPRINT_GRID = 4;
+    private static final int FINGERPRINT_SIZE = FINGERPRINT_GRID * FINGERPRINT_GRID * 3;
+    private static final int FINGERPRINT_CELL_SAMPLES = 8;
+
     private static class ImageCheck {
 
         private final String imagePath;
@@ -55,6 +74,34 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
         }
     }
 
+    private static ExecutorService executor;
+
+    /**
+     * Image comparison has its own threads so that it doesn't depend on parallel validation of geometric specs
+     * and doesn't compete with it for the same pool
+     * @return executor for comparing sample images or null in case parallel comparison is disabled
+     */
+    private synchronized static ExecutorService getExecutor() {
+        int threads = GalenConfig.getConfig().getImageSpecThreads();
+        if (threads < 2) {
+            return null;
+        }
+
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "galen-image-compare-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
     @Override
     public ValidationResult check(PageValidation pageValidation, String objectName, SpecImage spec) throws ValidationErrorException {
         PageElement pageElement = pageValidation.findPageElement(objectName);
@@ -85,13 +132,20 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
             throw new ValidationErrorException("There are now images defined to compare with").withValidationObject(new ValidationObject(pageElement.getArea(), objectName));
         }
 
-        try {
-            while (minCheck.difference > 0 && it.hasNext()) {
-                String imagePath = it.next();
+        ExecutorService executor = getExecutor();
 
-                ImageCheck imageCheck = checkImages(spec, pageImage, options, elementArea, imagePath);
-                if (imageCheck.difference <= minCheck.difference) {
-                    minCheck = imageCheck;
+        try {
+            if (executor != null && spec.getImagePaths().size() > 1) {
+                minCheck = checkImagesInParallel(executor, spec, pageImage, options, elementArea, minCheck);
+            }
+            else {
+                while (minCheck.difference > 0 && it.hasNext()) {
+                    String imagePath = it.next();
+
+                    ImageCheck imageCheck = checkImages(spec, pageImage, options, elementArea, imagePath);
+                    if (imageCheck.difference <= minCheck.difference) {
+                        minCheck = imageCheck;
+                    }
                 }
             }
         } catch (ValidationErrorException ex) {
@@ -118,20 +172,210 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
     }
 
 
+    /**
+     * Compares all sample images concurrently. Candidates are submitted starting from the ones
+     * which look most similar to the element, and as soon as one of them passes the rest are cancelled.
+     * In case none of them passes the result is the same as with sequential comparison
+     */
+    private ImageCheck checkImagesInParallel(ExecutorService executor, final SpecImage spec, final BufferedImage pageImage,
+                                             final ComparisonOptions options, final Rect elementArea, ImageCheck minCheck) throws Exception {
+        List<String> imagePaths = spec.getImagePaths();
+        Exception[] errors = new Exception[imagePaths.size()];
+        ImageCheck[] checks = new ImageCheck[imagePaths.size()];
+
+        List<ImageCandidate> candidates = new ArrayList<ImageCandidate>(imagePaths.size());
+        for (int index = 0; index < imagePaths.size(); index++) {
+            try {
+                BufferedImage sampleImage = loadSampleImage(spec, imagePaths.get(index));
+                candidates.add(new ImageCandidate(index, imagePaths.get(index), sampleImage,
+                        rankCandidate(spec, pageImage, elementArea, sampleImage)));
+            } catch (ValidationErrorException ex) {
+                errors[index] = ex;
+            }
+        }
+        Collections.sort(candidates);
+
+        CompletionService<ImageCheck> completionService = new ExecutorCompletionService<ImageCheck>(executor);
+        Map<Future<ImageCheck>, ImageCandidate> futures = new HashMap<Future<ImageCheck>, ImageCandidate>();
+        for (final ImageCandidate candidate : candidates) {
+            futures.put(completionService.submit(new Callable<ImageCheck>() {
+                @Override
+                public ImageCheck call() throws Exception {
+                    // each thread gets its own options as Rainbow4J modifies them during comparison
+                    ComparisonOptions candidateOptions = copyOptions(options, options.getSampleFilters());
+                    return compareImages(spec, pageImage, candidateOptions, elementArea, candidate.imagePath, candidate.sampleImage);
+                }
+            }), candidate);
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<ImageCheck> future = completionService.take();
+                ImageCandidate candidate = futures.get(future);
+                try {
+                    ImageCheck imageCheck = future.get();
+                    if (imageCheck.difference <= 0) {
+                        return imageCheck;
+                    }
+                    checks[candidate.index] = imageCheck;
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof Exception) {
+                        errors[candidate.index] = (Exception) ex.getCause();
+                    }
+                    else {
+                        throw ex;
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ex;
+        } finally {
+            for (Future<ImageCheck> future : futures.keySet()) {
+                future.cancel(true);
+            }
+        }
+
+        for (int index = 0; index < imagePaths.size(); index++) {
+            if (errors[index] != null) {
+                throw errors[index];
+            }
+            if (checks[index].difference <= minCheck.difference) {
+                minCheck = checks[index];
+            }
+        }
+        return minCheck;
+    }
+
+    private static class ImageCandidate implements Comparable<ImageCandidate> {
+        private final int index;
+        private final String imagePath;
+        private final BufferedImage sampleImage;
+        private final long rank;
+
+        public ImageCandidate(int index, String imagePath, BufferedImage sampleImage, long rank) {
+            this.index = index;
+            this.imagePath = imagePath;
+            this.sampleImage = sampleImage;
+            this.rank = rank;
+        }
+
+        @Override
+        public int compareTo(ImageCandidate other) {
+            if (rank != other.rank) {
+                return rank < other.rank ? -1 : 1;
+            }
+            return index - other.index;
+        }
+    }
+
+    /**
+     * Cheap estimation of how different the sample is from the element.
+     * Samples of different size (when stretching is not allowed) are ranked last,
+     * the rest are ranked by the difference of their downscaled fingerprints
+     */
+    private long rankCandidate(SpecImage spec, BufferedImage pageImage, Rect elementArea, BufferedImage sampleImage) {
+        Rectangle sampleArea = sampleAreaFor(spec, sampleImage);
+
+        long rank = 0;
+        if (!spec.isStretch() && (sampleArea.width != elementArea.getWidth() || sampleArea.height != elementArea.getHeight())) {
+            rank = Long.MAX_VALUE / 2;
+        }
+
+        int[] elementFingerprint = fingerprint(pageImage, toRectangle(elementArea));
+        int[] sampleFingerprint = fingerprint(sampleImage, sampleArea);
+        for (int i = 0; i < FINGERPRINT_SIZE; i++) {
+            rank += Math.abs(elementFingerprint[i] - sampleFingerprint[i]);
+        }
+        return rank;
+    }
+
+    /**
+     * Splits the area into a grid and picks the average color in each cell using a limited amount of pixels
+     */
+    private int[] fingerprint(BufferedImage image, Rectangle area) {
+        int[] fingerprint = new int[FINGERPRINT_SIZE];
+
+        Rectangle bounded = area.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        if (bounded.isEmpty()) {
+            return fingerprint;
+        }
+
+        for (int cellY = 0; cellY < FINGERPRINT_GRID; cellY++) {
+            for (int cellX = 0; cellX < FINGERPRINT_GRID; cellX++) {
+                int x1 = bounded.x + bounded.width * cellX / FINGERPRINT_GRID;
+                int x2 = bounded.x + bounded.width * (cellX + 1) / FINGERPRINT_GRID;
+                int y1 = bounded.y + bounded.height * cellY / FINGERPRINT_GRID;
+                int y2 = bounded.y + bounded.height * (cellY + 1) / FINGERPRINT_GRID;
+                int stepX = Math.max(1, (x2 - x1) / FINGERPRINT_CELL_SAMPLES);
+                int stepY = Math.max(1, (y2 - y1) / FINGERPRINT_CELL_SAMPLES);
+
+                long r = 0, g = 0, b = 0, amount = 0;
+                for (int y = y1; y < y2; y += stepY) {
+                    for (int x = x1; x < x2; x += stepX) {
+                        int rgb = image.getRGB(x, y);
+                        r += (rgb >> 16) & 0xff;
+                        g += (rgb >> 8) & 0xff;
+                        b += rgb & 0xff;
+                        amount++;
+                    }
+                }
+
+                if (amount > 0) {
+                    int cell = (cellY * FINGERPRINT_GRID + cellX) * 3;
+                    fingerprint[cell] = (int) (r / amount);
+                    fingerprint[cell + 1] = (int) (g / amount);
+                    fingerprint[cell + 2] = (int) (b / amount);
+                }
+            }
+        }
+        return fingerprint;
+    }
 
     private ImageCheck checkImages(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, Rect elementArea, String imagePath)
             throws ValidationErrorException {
-        BufferedImage sampleImage;
+        return compareImages(spec, pageImage, options, elementArea, imagePath, loadSampleImage(spec, imagePath));
+    }
+
+    private BufferedImage loadSampleImage(SpecImage spec, String imagePath) throws ValidationErrorException {
+        SampleImageCache sampleImageCache = SampleImageCache.getInstance();
         try {
-            InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
-            sampleImage = Rainbow4J.loadImage(stream);
+            if (sampleImageCache.isEnabled()) {
+                return sampleImageCache.getImage(imagePath);
+            }
+            else {
+                InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
+                return Rainbow4J.loadImage(stream);
+            }
         } catch (Exception ex) {
             LOG.error("Unkown errors during image check.", ex);
             throw new ValidationErrorException("Couldn't load image: " + spec.getImagePaths().get(0));
         }
+    }
 
-        Rectangle sampleArea = spec.getSelectedArea() != null ? toRectangle(spec.getSelectedArea()) : new Rectangle(0, 0, sampleImage.getWidth(),
+    private Rectangle sampleAreaFor(SpecImage spec, BufferedImage sampleImage) {
+        return spec.getSelectedArea() != null ? toRectangle(spec.getSelectedArea()) : new Rectangle(0, 0, sampleImage.getWidth(),
                 sampleImage.getHeight());
+    }
+
+    private ImageCheck compareImages(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, Rect elementArea, String imagePath,
+                                     BufferedImage sampleImage) throws ValidationErrorException {
+        SampleImageCache sampleImageCache = SampleImageCache.getInstance();
+
+        Rectangle sampleArea = sampleAreaFor(spec, sampleImage);
+
+        if (sampleImageCache.isEnabled() && hasFilters(options.getSampleFilters()) && isInside(sampleArea, sampleImage)) {
+            try {
+                BufferedImage filteredSampleImage = sampleImageCache.getFilteredImage(imagePath, options.getSampleFilters(), sampleArea);
+                if (filteredSampleImage != null) {
+                    sampleImage = filteredSampleImage;
+                    options = copyOptions(options, new LinkedList<ImageFilter>());
+                }
+            } catch (Exception ex) {
+                LOG.error("Unkown errors during image check.", ex);
+                throw new ValidationErrorException("Couldn't load image: " + spec.getImagePaths().get(0));
+            }
+        }
 
         if (elementArea.getLeft() >= pageImage.getWidth() || elementArea.getTop() >= pageImage.getHeight()) {
             throw new RuntimeException(String.format(
@@ -168,6 +412,25 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
         return new ImageCheck(imagePath, difference, result, errorMessage);
     }
 
+    private boolean hasFilters(List<ImageFilter> filters) {
+        return filters != null && !filters.isEmpty();
+    }
+
+    private boolean isInside(Rectangle area, BufferedImage image) {
+        return area.x >= 0 && area.y >= 0 && area.width > 0 && area.height > 0
+                && area.x + area.width <= image.getWidth() && area.y + area.height <= image.getHeight();
+    }
+
+    private ComparisonOptions copyOptions(ComparisonOptions options, List<ImageFilter> sampleFilters) {
+        ComparisonOptions newOptions = new ComparisonOptions();
+        newOptions.setStretchToFit(options.isStretchToFit());
+        newOptions.setOriginalFilters(options.getOriginalFilters());
+        newOptions.setSampleFilters(sampleFilters);
+        newOptions.setMapFilters(options.getMapFilters());
+        newOptions.setTolerance(options.getTolerance());
+        return newOptions;
+    }
+
     private Rect cropElementAreaIfOutside(Rect elementArea, int width, int height) {
         int x2 = elementArea.getLeft() + elementArea.getWidth();
         int y2 = elementArea.getTop() + elementArea.getHeight();
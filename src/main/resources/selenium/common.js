@@ -0,0 +1,52 @@
+/*
+ Functions shared by all scripts which are executed in browser.
+ BrowserScripts prepends them to every script, so they should only declare functions
+*/
+function findAll(root, type, value) {
+    var found = [], i, nodes;
+    root = root || document;
+    if (type === 'css') {
+        nodes = root.querySelectorAll(value);
+    } else if (type === 'id') {
+        nodes = root.querySelectorAll('[id="' + value.replace(/"/g, '\\"') + '"]');
+    } else if (type === 'xpath') {
+        nodes = document.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+        for (i = 0; i < nodes.snapshotLength; i += 1) {
+            found.push(nodes.snapshotItem(i));
+        }
+        return found;
+    } else {
+        return found;
+    }
+    for (i = 0; i < nodes.length; i += 1) {
+        found.push(nodes[i]);
+    }
+    return found;
+}
+
+function hasPositiveSize(element) {
+    var rect = element.getBoundingClientRect(), i;
+    if (rect.width > 0 && rect.height > 0) {
+        return true;
+    }
+    for (i = 0; i < element.children.length; i += 1) {
+        if (hasPositiveSize(element.children[i])) {
+            return true;
+        }
+    }
+    return false;
+}
+
+function isVisible(element) {
+    var style = window.getComputedStyle(element), node;
+    if (style.visibility === 'hidden' || style.visibility === 'collapse') {
+        return false;
+    }
+    for (node = element; node && node.nodeType === 1; node = node.parentNode) {
+        style = window.getComputedStyle(node);
+        if (style.display === 'none' || parseFloat(style.opacity) === 0) {
+            return false;
+        }
+    }
+    return hasPositiveSize(element);
+}
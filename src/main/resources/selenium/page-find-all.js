@@ -0,0 +1,15 @@
+/*
+ Finds all elements for each of given locators in one go.
+ Executed via WebDriver executeScript, so it is a function body:
+   arguments[0] - context element or null for whole document
+   arguments[1] - array of locators in form [type, value]
+ Returns an array in the same order as locators. Each item is an array of all found elements
+*/
+var root = arguments[0] || document;
+var locators = arguments[1];
+
+var results = [], i;
+for (i = 0; i < locators.length; i += 1) {
+    results.push(findAll(root, locators[i][0], locators[i][1]));
+}
+return results;
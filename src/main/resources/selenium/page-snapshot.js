@@ -0,0 +1,42 @@
+/*
+ Resolves all given locators in one go and collects their geometry, visibility and text.
+ Executed via WebDriver executeScript, so it is a function body:
+   arguments[0] - context element or null for whole document
+   arguments[1] - array of locators in form [type, value, index]
+ Returns an array in the same order as locators. Each item is either null (element not found)
+ or an array: [element, left, top, width, height, visible, text]
+*/
+var root = arguments[0] || document;
+var locators = arguments[1];
+
+function textOf(element) {
+    if (element.tagName.toLowerCase() === 'input') {
+        return element.value || '';
+    }
+    return (element.innerText || element.textContent || '').replace(/^\s+|\s+$/g, '');
+}
+
+var scrollLeft = window.pageXOffset || document.documentElement.scrollLeft || 0;
+var scrollTop = window.pageYOffset || document.documentElement.scrollTop || 0;
+var results = [], i, locator, elements, index, element, rect;
+
+for (i = 0; i < locators.length; i += 1) {
+    locator = locators[i];
+    elements = findAll(root, locator[0], locator[1]);
+    index = locator[2] > 0 ? locator[2] - 1 : 0;
+
+    if (index < elements.length) {
+        element = elements[index];
+        rect = element.getBoundingClientRect();
+        results.push([element,
+            Math.round(rect.left + scrollLeft),
+            Math.round(rect.top + scrollTop),
+            Math.round(rect.width),
+            Math.round(rect.height),
+            isVisible(element),
+            textOf(element)]);
+    } else {
+        results.push(null);
+    }
+}
+return results;
@@ -0,0 +1,66 @@
+/*
+ Waits until geometry of given objects stays the same for a number of consecutive animation frames.
+ Executed via WebDriver executeAsyncScript:
+   arguments[0] - array of locators in form [type, value, index], index 0 means all found elements
+   arguments[1] - amount of consecutive frames in which geometry should not change
+   arguments[2] - timeout in milliseconds
+ Calls back with true as soon as layout is stable or with false if it was still changing after timeout
+*/
+var locators = arguments[0];
+var requiredFrames = arguments[1];
+var timeout = arguments[2];
+var callback = arguments[arguments.length - 1];
+
+function geometry() {
+    var parts = [document.documentElement.scrollWidth, document.documentElement.scrollHeight], i, j, elements, rect;
+    for (i = 0; i < locators.length; i += 1) {
+        elements = findAll(document, locators[i][0], locators[i][1]);
+        if (locators[i][2] > 0) {
+            elements = locators[i][2] <= elements.length ? [elements[locators[i][2] - 1]] : [];
+        }
+        parts.push(elements.length);
+        for (j = 0; j < elements.length; j += 1) {
+            rect = elements[j].getBoundingClientRect();
+            parts.push(Math.round(rect.left), Math.round(rect.top), Math.round(rect.width), Math.round(rect.height));
+        }
+    }
+    return parts.join(',');
+}
+
+var nextFrame = window.requestAnimationFrame || function (f) { return setTimeout(f, 16); };
+var startedAt = new Date().getTime();
+var previous = null, stableFrames = 0, finished = false;
+
+function finish(stable) {
+    if (!finished) {
+        finished = true;
+        callback(stable);
+    }
+}
+
+function sample() {
+    if (finished) {
+        return;
+    }
+    var current = geometry();
+    if (current === previous) {
+        stableFrames += 1;
+    } else {
+        stableFrames = 0;
+        previous = current;
+    }
+
+    if (stableFrames >= requiredFrames) {
+        finish(true);
+    } else if (new Date().getTime() - startedAt > timeout) {
+        finish(false);
+    } else {
+        nextFrame(sample);
+    }
+}
+
+// animation frames are paused in background tabs, so timeout is guarded separately
+setTimeout(function () {
+    finish(false);
+}, timeout);
+sample();
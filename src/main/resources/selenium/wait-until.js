@@ -0,0 +1,74 @@
+/*
+ Waits until all given conditions hold. Re-checks them on every DOM mutation
+ and periodically for style changes which do not mutate DOM (e.g. transitions).
+ Executed via WebDriver executeAsyncScript:
+   arguments[0] - array of conditions in form [type, value, index, until],
+                  where until is one of: visible, hidden, exist, gone
+   arguments[1] - timeout in milliseconds
+ Calls back with an array of indices of conditions which still did not hold after timeout
+ or with an empty array as soon as all conditions hold
+*/
+var conditions = arguments[0];
+var timeout = arguments[1];
+var callback = arguments[arguments.length - 1];
+
+function findFirst(type, value, index) {
+    var elements = findAll(document, type, value), position = index > 0 ? index - 1 : 0;
+    return position < elements.length ? elements[position] : null;
+}
+
+function holds(condition) {
+    var element = findFirst(condition[0], condition[1], condition[2]);
+    if (condition[3] === 'visible') {
+        return element !== null && isVisible(element);
+    } else if (condition[3] === 'hidden') {
+        return element === null || !isVisible(element);
+    } else if (condition[3] === 'exist') {
+        return element !== null;
+    } else if (condition[3] === 'gone') {
+        return element === null;
+    }
+    return true;
+}
+
+function failedConditions() {
+    var failed = [], i;
+    for (i = 0; i < conditions.length; i += 1) {
+        if (!holds(conditions[i])) {
+            failed.push(i);
+        }
+    }
+    return failed;
+}
+
+var finished = false, observer = null, interval = null, timer = null;
+
+function finish(failed) {
+    if (!finished) {
+        finished = true;
+        if (observer) {
+            observer.disconnect();
+        }
+        clearInterval(interval);
+        clearTimeout(timer);
+        callback(failed);
+    }
+}
+
+function check() {
+    if (!finished && failedConditions().length === 0) {
+        finish([]);
+    }
+}
+
+check();
+if (!finished) {
+    if (window.MutationObserver) {
+        observer = new MutationObserver(check);
+        observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});
+    }
+    interval = setInterval(check, 50);
+    timer = setTimeout(function () {
+        finish(failedConditions());
+    }, timeout);
+}
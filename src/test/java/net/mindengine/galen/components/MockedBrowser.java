@@ -110,4 +110,7 @@ public class MockedBrowser implements Browser {
         recordedActions.add("refresh");
     }
 
+    @Override
+    public void invalidatePage() {
+    }
 }
@@ -17,18 +17,19 @@ package net.mindengine.galen.components.mocks.driver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.mindengine.galen.utils.GalenUtils;
-import net.mindengine.rainbow4j.Rainbow4J;
+import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.*;
 import org.openqa.selenium.logging.Logs;
 
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
 
 public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecutor {
     private MockedDriverPage page;
@@ -36,6 +37,7 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
 
     private Dimension screenSize = new Dimension(1024, 768);
     private List<String> allExecutedJavascript = new LinkedList<String>();
+    private List<Long> scriptTimeouts = new LinkedList<Long>();
 
     public MockedDriver() {
     }
@@ -159,7 +161,23 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
 
             @Override
             public Timeouts timeouts() {
-                return null;
+                return new Timeouts() {
+                    @Override
+                    public Timeouts implicitlyWait(long time, TimeUnit unit) {
+                        return this;
+                    }
+
+                    @Override
+                    public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+                        scriptTimeouts.add(unit.toMillis(time));
+                        return this;
+                    }
+
+                    @Override
+                    public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+                        return this;
+                    }
+                };
             }
 
             @Override
@@ -207,19 +225,22 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
     @Override
     public <X> X getScreenshotAs(OutputType<X> xOutputType) throws WebDriverException {
         if (xOutputType.equals(OutputType.FILE)) {
-            return (X) new File(getClass().getResource("/mocks/pages/screenshot.png").getFile());
+            // real drivers give a new temporary file for every screenshot
+            try {
+                File file = File.createTempFile("screenshot", ".png");
+                FileUtils.copyFile(new File(getClass().getResource("/mocks/pages/screenshot.png").getFile()), file);
+                return (X) file;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
         else if (xOutputType.equals(OutputType.BYTES)) {
             File file = new File(getClass().getResource("/mocks/pages/screenshot.png").getFile());
-
-            BufferedImage image = null;
             try {
-                image = Rainbow4J.loadImage(file.getAbsolutePath());
+                return (X) FileUtils.readFileToByteArray(file);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            return (X)((DataBufferByte) image.getData().getDataBuffer()).getData();
-
         }
         else throw new RuntimeException("Cannot make screenshot");
     }
@@ -231,6 +252,9 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
         if (s.equals(GalenUtils.JS_RETRIEVE_DEVICE_PIXEL_RATIO)) {
             return 1L;
         }
+        else if (s.startsWith("return [window.innerWidth")) {
+            return asList((long) screenSize.getWidth(), (long) screenSize.getHeight());
+        }
         else return null;
     }
 
@@ -243,4 +267,8 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
     public List<String> getAllExecutedJavascript() {
         return allExecutedJavascript;
     }
+
+    public List<Long> getScriptTimeouts() {
+        return scriptTimeouts;
+    }
 }
@@ -17,7 +17,9 @@ package net.mindengine.galen.components.validation;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
 
 import net.mindengine.galen.page.AbsentPageElement;
 import net.mindengine.galen.page.Page;
@@ -97,6 +99,16 @@ public class MockedPage implements Page {
         return null;
     }
 
+    @Override
+    public boolean hasScreenshot() {
+        return false;
+    }
+
+    @Override
+    public boolean hasTemporaryScreenshot() {
+        return false;
+    }
+
     @Override
     public String getTitle() {
         return "";
@@ -117,6 +129,10 @@ public class MockedPage implements Page {
         return null;
     }
 
+    @Override
+    public void takeSnapshot(Map<String, Locator> objects) {
+    }
+
     public void setScreenshotImage(BufferedImage screenshotImage) {
         this.screenshotImage = screenshotImage;
     }
@@ -129,4 +145,7 @@ public class MockedPage implements Page {
         this.locatorElements = locatorElements;
     }
 
-}
\ No newline at end of file
+    @Override
+    public void fetchObjectLists(Collection<Locator> locators) {
+    }
+}
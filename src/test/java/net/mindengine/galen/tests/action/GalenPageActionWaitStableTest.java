@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.action;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.reports.TestReport;
+import net.mindengine.galen.suite.actions.GalenPageActionWaitStable;
+
+import org.testng.annotations.Test;
+
+public class GalenPageActionWaitStableTest {
+
+    private static final String SPEC_PATH = GalenPageActionWaitStableTest.class.getResource("/GalenPageActionCheckTest/page.spec").getPath();
+
+    @Test
+    public void shouldPass_whenLayoutBecomesStable() throws Exception {
+        StabilityDriver driver = new StabilityDriver(true);
+
+        new GalenPageActionWaitStable().withTimeout(1000).withSpecs(asList(SPEC_PATH)).withFrames(3)
+                .execute(new TestReport(), new SeleniumBrowser(driver), null, null);
+
+        assertThat(driver.frames, is((Object) 3));
+        assertThat(driver.locators, hasItem((Object) asList("id", "menu", 0)));
+        assertThat(driver.getScriptTimeouts(), contains(6000L, 0L));
+    }
+
+    @Test
+    public void shouldThrowException_whenLayoutIsStillChanging() throws Exception {
+        TimeoutException exception = null;
+        try {
+            new GalenPageActionWaitStable().withTimeout(1000).withSpecs(asList(SPEC_PATH))
+                    .execute(new TestReport(), new SeleniumBrowser(new StabilityDriver(false)), null, null);
+        }
+        catch (TimeoutException e) {
+            exception = e;
+        }
+
+        assertThat("Exception should be thrown", exception, notNullValue());
+        assertThat(exception.getMessage(), is("Layout did not become stable in 1000 ms"));
+    }
+
+    private static class StabilityDriver extends MockedDriver {
+        private final boolean stable;
+        private List<Object> locators;
+        private Object frames;
+
+        private StabilityDriver(boolean stable) {
+            this.stable = stable;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            super.executeAsyncScript(script, args);
+            locators = (List<Object>) args[0];
+            frames = args[1];
+            return stable;
+        }
+    }
+}
@@ -20,16 +20,23 @@ import static net.mindengine.galen.specs.page.Locator.css;
 import static net.mindengine.galen.specs.page.Locator.id;
 import static net.mindengine.galen.specs.page.Locator.xpath;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
+import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.components.MockedBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
 import net.mindengine.galen.components.validation.MockedInvisiblePageElement;
 import net.mindengine.galen.components.validation.MockedPage;
 import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.specs.page.Locator;
@@ -88,6 +95,92 @@ public class GalenPageActionWaitTest {
     }
     
     
+    @Test
+    public void shouldWait_inBrowser_andReportOnlyFailedConditions() throws Exception {
+        GalenConfig.getConfig().setProperty(GalenConfig.WAIT_IN_BROWSER, "true");
+        try {
+            GalenPageActionWait wait = new GalenPageActionWait();
+            wait.setTimeout(60000);
+            wait.setUntilElements(asList(
+                    until(UntilType.VISIBLE, css("div.list")),
+                    until(UntilType.HIDDEN, id("qwe")),
+                    until(UntilType.GONE, css("qweqwewqee"))
+            ));
+
+            wait.execute(new TestReport(), new SeleniumBrowser(new AsyncScriptDriver(Collections.<Long>emptyList())), null, null);
+
+            TimeoutException exception = null;
+            try {
+                wait.execute(new TestReport(), new SeleniumBrowser(new AsyncScriptDriver(asList(1L))), null, null);
+            }
+            catch (TimeoutException e) {
+                exception = e;
+            }
+
+            assertThat("Exception should be thrown", exception, notNullValue());
+            assertThat(exception.getMessage(), is("Failed waiting for:\n - hidden id: qwe\n"));
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.WAIT_IN_BROWSER, "false");
+        }
+    }
+
+    @Test
+    public void shouldRestoreScriptTimeout_andNotPollAgain_whenWaitingInBrowserTimesOut() throws Exception {
+        GalenConfig.getConfig().setProperty(GalenConfig.WAIT_IN_BROWSER, "true");
+        try {
+            GalenPageActionWait wait = new GalenPageActionWait();
+            wait.setTimeout(60000);
+            wait.setUntilElements(asList(
+                    until(UntilType.EXIST, css("#menu .menu-item")),
+                    until(UntilType.EXIST, css("#missing"))
+            ));
+
+            TimingOutDriver driver = new TimingOutDriver();
+            long startTime = System.currentTimeMillis();
+            TimeoutException exception = null;
+            try {
+                wait.execute(new TestReport(), new SeleniumBrowser(driver), null, null);
+            }
+            catch (TimeoutException e) {
+                exception = e;
+            }
+
+            assertThat("Exception should be thrown", exception, notNullValue());
+            assertThat(exception.getMessage(), is("Failed waiting for:\n - exist css: #missing\n"));
+            assertThat(System.currentTimeMillis() - startTime, is(lessThan(30000L)));
+            assertThat(driver.getScriptTimeouts(), contains(65000L, 0L));
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.WAIT_IN_BROWSER, "false");
+        }
+    }
+
+    private static class TimingOutDriver extends MockedDriver {
+        private TimingOutDriver() {
+            super("/mocks/pages/base-page.json");
+        }
+
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            throw new org.openqa.selenium.TimeoutException("Timed out waiting for async script result");
+        }
+    }
+
+    private static class AsyncScriptDriver extends MockedDriver {
+        private final List<Long> failedConditions;
+
+        private AsyncScriptDriver(List<Long> failedConditions) {
+            this.failedConditions = failedConditions;
+        }
+
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            super.executeAsyncScript(script, args);
+            return failedConditions;
+        }
+    }
+
     @SuppressWarnings("serial")
     private MockedPage createMockedPage() {
         MockedPage page = new MockedPage();
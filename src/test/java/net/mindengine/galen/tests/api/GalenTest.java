@@ -19,9 +19,17 @@ import com.google.common.io.Files;
 import com.google.gson.JsonParser;
 
 import net.mindengine.galen.api.Galen;
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.DumpBrowser;
+import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.dump.DumpPage;
+import net.mindengine.galen.page.selenium.SeleniumPage;
 import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.suite.actions.GalenPageActionCookie;
 import net.mindengine.galen.validation.ValidationObject;
 import net.mindengine.galen.validation.ValidationError;
 
@@ -60,6 +68,47 @@ public class GalenTest {
                         new ValidationError().withMessage("\"save-button\" text is \"Save\" but should be \"Store\""))));
     }
 
+    @Test
+    public void checkLayout_shouldNotTakeScreenshot_whenThereAreNoFailures() throws IOException {
+        WebDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = Galen.checkLayout(driver, "/specs/galen4j/sample-spec-without-errors.spec", asList("mobile"), null, new Properties(), null);
+
+        assertThat(layoutReport.getValidationErrorResults().size(), is(0));
+        assertThat(layoutReport.getScreenshot(), is(nullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldTakeScreenshot_whenThereAreFailures() throws IOException {
+        WebDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        LayoutReport layoutReport = Galen.checkLayout(driver, "/specs/galen4j/sample-spec-with-error.spec", asList("mobile"), null, new Properties(), null);
+
+        assertThat(layoutReport.getScreenshot(), is(notNullValue()));
+    }
+
+    @Test
+    public void checkLayout_shouldLeaveScreenshotTakenInMemory_toBeSavedForReport() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+        final SeleniumPage page = new SeleniumPage(driver);
+        page.getScreenshotImage();
+        Browser browser = new SeleniumBrowser(driver) {
+            @Override
+            public Page getPage() {
+                return page;
+            }
+        };
+
+        LayoutReport layoutReport = Galen.checkLayout(browser, asList("/specs/galen4j/sample-spec-with-error.spec"), asList("mobile"), null, new Properties(), null);
+
+        assertThat("Test should not wait for screenshot file", page.getPendingScreenshotFile(), is(notNullValue()));
+        File screenshot = layoutReport.getFileStorage().getFiles().get(layoutReport.getScreenshot());
+        assertThat(screenshot.exists(), is(true));
+        assertThat(screenshot, is(page.createScreenshot()));
+    }
 
     @Test
     public void dumpPage_shouldGenereate_htmlJsonReport_andStorePicturesOfElements() throws IOException {
@@ -87,6 +136,25 @@ public class GalenTest {
     }
 
 
+    @Test
+    public void pageDump_shouldProvide_dumpedViewport_insteadOfWholeScreenshot() throws IOException {
+        String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
+
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+        driver.manage().window().setSize(new org.openqa.selenium.Dimension(300, 200));
+        Galen.dumpPage(driver, "test page", "/specs/galen4j/pagedump.spec", pageDumpPath);
+
+        DumpPage page = DumpPage.loadFromFolder(new File(pageDumpPath));
+        assertThat(page.getSpecialObject("viewport").getArea(), is(new Rect(0, 0, 300, 200)));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class,
+            expectedExceptionsMessageRegExp = "Page dump doesn't contain viewport size, it should be dumped again to check viewport")
+    public void pageDump_withoutViewport_shouldNotAllowToCheckViewport() {
+        new DumpPage(new PageDump(), null).getSpecialObject("viewport");
+    }
+
     @Test
     public void dumpPage_shouldOnlyStoreScreenshots_thatAreLessThan_theMaxAllowed() throws IOException {
         String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
@@ -104,6 +172,46 @@ public class GalenTest {
     }
 
 
+    @Test
+    public void checkLayout_shouldTestLayout_againstPageDump_withoutBrowser() throws IOException {
+        String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
+
+        WebDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+        Galen.dumpPage(driver, "test page", "/specs/galen4j/pagedump.spec", pageDumpPath);
+
+        LayoutReport layoutReport = Galen.checkLayout(new DumpBrowser(new File(pageDumpPath)), asList("/specs/galen4j/pagedump-check.spec"),
+                asList("mobile"), null, new Properties(), null);
+
+        assertThat(layoutReport.getValidationErrorResults(), containsInAnyOrder(
+                new ValidationResult(
+                        asList(
+                                new ValidationObject(new Rect(10, 10, 100, 50), "button-save"),
+                                new ValidationObject(new Rect(120, 10, 200, 50), "name-textfield")),
+                        new ValidationError().withMessage("\"button-save\" is 10px left instead of 50px")),
+                new ValidationResult(
+                        asList(new ValidationObject(new Rect(30, 10, 20, 10), "menu-item-1")),
+                        new ValidationError().withMessage("\"menu-item-1\" width is 20px instead of 30px")),
+                new ValidationResult(
+                        asList(new ValidationObject(new Rect(50, 10, 20, 10), "menu-item-2")),
+                        new ValidationError().withMessage("\"menu-item-2\" width is 20px instead of 30px")),
+                new ValidationResult(
+                        asList(new ValidationObject(new Rect(70, 10, 20, 10), "menu-item-3")),
+                        new ValidationError().withMessage("\"menu-item-3\" width is 20px instead of 30px"))));
+    }
+    @Test
+    public void pageActions_withJavascript_shouldNotFail_againstPageDump() throws Exception {
+        String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
+
+        WebDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-pagedump.json");
+        Galen.dumpPage(driver, "test page", "/specs/galen4j/pagedump.spec", pageDumpPath);
+
+        DumpBrowser browser = new DumpBrowser(new File(pageDumpPath));
+        new GalenPageActionCookie().withCookies("lang=en").execute(null, browser, null, null);
+
+        assertThat(browser.executeJavascript("return 1;"), is(nullValue()));
+    }
 
     private void assertJSONContent(String pathForRealContent, String pathForExpectedContent) throws IOException {
         Assert.assertEquals(String.format("Content of \"%s\" should be the same as in \"%s\"", pathForRealContent, pathForExpectedContent),
@@ -0,0 +1,292 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.awt.Dimension;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.browser.BrowserPool;
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.MockedBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+
+import org.testng.annotations.Test;
+
+public class BrowserPoolTest {
+
+    @Test
+    public void shouldReuse_releasedBrowser_forTheSameFactory() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        Browser first = pool.acquire(factory);
+        pool.release(factory, first);
+        Browser second = pool.acquire(factory);
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(factory.openedBrowsers.size(), is(1));
+        assertThat(factory.quitBrowsers.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotShare_browsers_betweenDifferentFactories() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        RecordingBrowserFactory factoryA = new RecordingBrowserFactory();
+        RecordingBrowserFactory factoryB = new RecordingBrowserFactory();
+
+        Browser first = pool.acquire(factoryA);
+        pool.release(factoryA, first);
+        Browser second = pool.acquire(factoryB);
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(pool.getIdleCount(), is(1));
+    }
+
+    @Test
+    public void shouldQuitBrowser_afterMaxUses() {
+        BrowserPool pool = new BrowserPool(2, 2);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        Browser browser = pool.acquire(factory);
+        pool.release(factory, browser);
+        pool.release(factory, pool.acquire(factory));
+
+        assertThat(factory.quitBrowsers, contains(browser));
+        assertThat(pool.getOpenedCount(), is(0));
+        assertThat(pool.acquire(factory), is(not(sameInstance(browser))));
+    }
+
+    @Test
+    public void shouldWait_forReleasedBrowser_whenAllBrowsersAreInUse() throws Exception {
+        final BrowserPool pool = new BrowserPool(1, 10);
+        final RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        Browser first = pool.acquire(factory);
+        FutureTask<Browser> secondLease = new FutureTask<Browser>(new Callable<Browser>() {
+            @Override
+            public Browser call() throws Exception {
+                return pool.acquire(factory);
+            }
+        });
+        new Thread(secondLease).start();
+
+        Thread.sleep(200);
+        assertThat(secondLease.isDone(), is(false));
+
+        pool.release(factory, first);
+
+        assertThat(secondLease.get(5, TimeUnit.SECONDS), is(sameInstance(first)));
+        assertThat(factory.openedBrowsers.size(), is(1));
+        assertThat(pool.getOpenedCount(), is(1));
+    }
+
+    @Test
+    public void shouldQuitIdleBrowser_ofOtherFactory_whenPoolIsFull() {
+        BrowserPool pool = new BrowserPool(1, 10);
+        RecordingBrowserFactory factoryA = new RecordingBrowserFactory();
+        RecordingBrowserFactory factoryB = new RecordingBrowserFactory();
+
+        Browser first = pool.acquire(factoryA);
+        pool.release(factoryA, first);
+        Browser second = pool.acquire(factoryB);
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(factoryA.quitBrowsers, contains(first));
+        assertThat(pool.getIdleCount(), is(0));
+        assertThat(pool.getOpenedCount(), is(1));
+    }
+
+    @Test
+    public void shouldRestore_initialWindowSize_beforeReusingBrowser() {
+        BrowserPool pool = new BrowserPool(1, 10);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        Browser browser = pool.acquire(factory);
+        browser.changeWindowSize(new Dimension(400, 300));
+        pool.release(factory, browser);
+
+        assertThat(pool.acquire(factory).getScreenSize(), is(new Dimension(1024, 768)));
+    }
+
+    @Test
+    public void shouldQuitBrowser_rightAway_whenPoolIsDisabled() {
+        BrowserPool pool = new BrowserPool(0, 10);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        Browser browser = pool.acquire(factory);
+        pool.release(factory, browser);
+
+        assertThat(factory.quitBrowsers, contains(browser));
+        assertThat(pool.getIdleCount(), is(0));
+    }
+
+    @Test
+    public void shouldDiscard_unhealthyBrowsers() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        RecordingBrowser browser = (RecordingBrowser) pool.acquire(factory);
+        pool.release(factory, browser);
+        browser.healthy = false;
+
+        assertThat(pool.acquire(factory), is(not(sameInstance((Browser) browser))));
+        assertThat(factory.quitBrowsers, contains((Browser) browser));
+    }
+
+    @Test
+    public void shouldClearStorage_andOpenBlankPage_beforeReusingBrowser() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        RecordingBrowser browser = (RecordingBrowser) pool.acquire(factory);
+        pool.release(factory, browser);
+
+        assertThat(browser.getRecordedActions().size(), is(1));
+        assertThat(browser.getRecordedActions().get(0), containsString("localStorage.clear()"));
+        assertThat(browser.loadedUrl, is("about:blank"));
+    }
+
+    @Test
+    public void shouldQuitBrowser_thatLoadedPagesOfOtherOrigin() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        SeleniumBrowserFactory factory = new SeleniumBrowserFactory();
+
+        SeleniumBrowser browser = (SeleniumBrowser) pool.acquire(factory);
+        browser.load("http://example.com/login");
+        browser.load("https://other.example.com/sso");
+        browser.load("http://example.com/home");
+        pool.release(factory, browser);
+
+        assertThat(pool.getIdleCount(), is(0));
+        assertThat(pool.getOpenedCount(), is(0));
+        assertThat(pool.acquire(factory), is(not(sameInstance((Browser) browser))));
+    }
+
+    @Test
+    public void shouldReuse_browserThatStayedOnOneOrigin() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        SeleniumBrowserFactory factory = new SeleniumBrowserFactory();
+
+        SeleniumBrowser browser = (SeleniumBrowser) pool.acquire(factory);
+        browser.load("http://example.com/login");
+        browser.load("http://EXAMPLE.com/home");
+        pool.release(factory, browser);
+
+        assertThat(pool.acquire(factory), is(sameInstance((Browser) browser)));
+        assertThat(browser.getLoadedOrigins(), is(empty()));
+        assertThat(browser.getUrl(), is("about:blank"));
+    }
+
+    @Test
+    public void shouldQuit_allIdleBrowsers() {
+        BrowserPool pool = new BrowserPool(2, 10);
+        RecordingBrowserFactory factory = new RecordingBrowserFactory();
+
+        Browser first = pool.acquire(factory);
+        Browser second = pool.acquire(factory);
+        pool.release(factory, first);
+        pool.release(factory, second);
+        pool.quitAll();
+
+        assertThat(factory.quitBrowsers, containsInAnyOrder(first, second));
+        assertThat(pool.getIdleCount(), is(0));
+    }
+
+    private static class RecordingBrowserFactory implements BrowserFactory {
+        private List<Browser> openedBrowsers = new LinkedList<Browser>();
+        private List<Browser> quitBrowsers = new LinkedList<Browser>();
+
+        @Override
+        public Browser openBrowser() {
+            Browser browser = new RecordingBrowser(this);
+            openedBrowsers.add(browser);
+            return browser;
+        }
+    }
+
+    private static class SeleniumBrowserFactory implements BrowserFactory {
+        @Override
+        public Browser openBrowser() {
+            return new SeleniumBrowser(new NavigatingDriver());
+        }
+    }
+
+    /**
+     * Driver which only remembers the loaded url instead of reading mocked page from it
+     */
+    private static class NavigatingDriver extends MockedDriver {
+        private String url;
+
+        @Override
+        public void get(String url) {
+            this.url = url;
+        }
+
+        @Override
+        public String getCurrentUrl() {
+            return url;
+        }
+    }
+
+    private static class RecordingBrowser extends MockedBrowser {
+        private final RecordingBrowserFactory factory;
+        private boolean healthy = true;
+        private String loadedUrl;
+        private Dimension windowSize = new Dimension(1024, 768);
+
+        public RecordingBrowser(RecordingBrowserFactory factory) {
+            super("http://example.com", null, null);
+            this.factory = factory;
+        }
+
+        @Override
+        public String getUrl() {
+            if (!healthy) {
+                throw new RuntimeException("Browser is dead");
+            }
+            return super.getUrl();
+        }
+
+        @Override
+        public void load(String url) {
+            this.loadedUrl = url;
+        }
+
+        @Override
+        public void changeWindowSize(Dimension windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public Dimension getScreenSize() {
+            return windowSize;
+        }
+
+        @Override
+        public void quit() {
+            factory.quitBrowsers.add(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.awt.Dimension;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Page;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class SeleniumBrowserTest {
+
+    @AfterMethod
+    public void resetPageCache() {
+        GalenConfig.getConfig().setProperty(GalenConfig.PAGE_CACHE, "false");
+    }
+
+    @Test
+    public void shouldCreateNewPage_eachTime_byDefault() {
+        SeleniumBrowser browser = new SeleniumBrowser(new MockedDriver("/mocks/pages/base-page.json"));
+
+        assertThat(browser.getPage(), is(not(sameInstance(browser.getPage()))));
+    }
+
+    @Test
+    public void shouldReusePage_untilItIsChanged_whenPageCacheIsEnabled() {
+        GalenConfig.getConfig().setProperty(GalenConfig.PAGE_CACHE, "true");
+        SeleniumBrowser browser = new SeleniumBrowser(new MockedDriver("/mocks/pages/base-page.json"));
+
+        Page page = browser.getPage();
+        assertThat(browser.getPage(), is(sameInstance(page)));
+
+        browser.executeJavascript("document.title = 'changed';");
+        Page pageAfterJavascript = browser.getPage();
+        assertThat(pageAfterJavascript, is(not(sameInstance(page))));
+
+        browser.changeWindowSize(new Dimension(400, 300));
+        Page pageAfterResize = browser.getPage();
+        assertThat(pageAfterResize, is(not(sameInstance(pageAfterJavascript))));
+
+        browser.load("/mocks/pages/base-page.json");
+        assertThat(browser.getPage(), is(not(sameInstance(pageAfterResize))));
+    }
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.browser;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.selenium.BrowserScripts;
+import net.mindengine.galen.page.selenium.SeleniumPage;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.specs.reader.page.SectionFilter;
+import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.SectionValidation;
+import net.mindengine.galen.validation.ValidationResult;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.Test;
+
+public class SeleniumPageTest {
+
+    @Test
+    public void objectContextPages_shouldShareScreenshot_withParentPage() {
+        SeleniumPage page = new SeleniumPage(new MockedDriver("/mocks/pages/base-page.json"));
+
+        Page firstComponent = page.createObjectContextPage(new Locator("css", "#menu .menu-item"));
+        Page secondComponent = page.createObjectContextPage(new Locator("css", "#menu .menu-item"));
+
+        assertThat(firstComponent.getScreenshotImage(), is(sameInstance(page.getScreenshotImage())));
+        assertThat(secondComponent.getScreenshotImage(), is(sameInstance(page.getScreenshotImage())));
+        assertThat(page.hasScreenshot(), is(true));
+    }
+
+    @Test
+    public void screenshotImage_shouldBeTakenInMemory_andSavedToFile_onlyWhenRequested() throws IOException {
+        SeleniumPage page = new SeleniumPage(new MockedDriver("/mocks/pages/base-page.json"));
+
+        BufferedImage image = page.getScreenshotImage();
+        assertThat(page.hasScreenshot(), is(true));
+
+        File file = page.createScreenshot();
+        assertThat(file.exists(), is(true));
+        assertThat(page.createScreenshot(), is(sameInstance(file)));
+        assertThat(page.getScreenshotImage(), is(sameInstance(image)));
+
+        BufferedImage savedImage = Rainbow4J.loadImage(file.getAbsolutePath());
+        assertThat(savedImage.getWidth(), is(image.getWidth()));
+        assertThat(savedImage.getHeight(), is(image.getHeight()));
+    }
+
+    @Test
+    public void objectContextPages_shouldReuseFoundElements_forTheSameLocator() {
+        CountingDriver driver = new CountingDriver();
+        SeleniumPage page = new SeleniumPage(driver);
+
+        for (int i = 0; i < 5; i++) {
+            page.createObjectContextPage(new Locator("css", "#menu .menu-item"));
+        }
+
+        assertThat(driver.findElementsCalls, is(1));
+    }
+
+    @Test
+    public void shouldNotMixObjects_withTheSameName_butDifferentLocators() {
+        SeleniumPage page = new SeleniumPage(new MockedDriver("/mocks/pages/base-page.json"));
+
+        assertThat(page.getObject("menu", new Locator("css", "#menu .menu-item")).isPresent(), is(true));
+        assertThat(page.getObject("menu", new Locator("css", "#unknown")).isPresent(), is(false));
+    }
+
+    @Test
+    public void multiObjects_shouldBeFound_onlyOnce_perLocator() {
+        CountingDriver driver = new CountingDriver();
+        SeleniumPage page = new SeleniumPage(driver);
+        Locator locator = new Locator("css", "#menu .menu-item");
+
+        int count = page.getObjectCount(locator);
+        for (int index = 1; index <= count + 1; index++) {
+            page.getObject("menu-item-" + index, new Locator("css", "#menu .menu-item", index));
+        }
+
+        assertThat(count, is(1));
+        assertThat(driver.findElementsCalls, is(1));
+    }
+
+    @Test
+    public void multiObjects_shouldBeFetched_withSingleJavascriptCall() {
+        CountingDriver driver = new CountingDriver();
+        SeleniumPage page = new SeleniumPage(driver);
+
+        page.fetchObjectLists(asList(new Locator("css", "#menu .menu-item"), new Locator("css", "#unknown")));
+
+        assertThat(page.getObjectCount(new Locator("css", "#menu .menu-item")), is(1));
+        assertThat(page.getObjectCount(new Locator("css", "#unknown")), is(0));
+        assertThat(page.getObject("menu-item-1", new Locator("css", "#menu .menu-item", 1)).isPresent(), is(true));
+        assertThat(driver.findElementsCalls, is(0));
+        assertThat(driver.getAllExecutedJavascript().size(), is(1));
+    }
+
+    @Test
+    public void snapshot_shouldProvide_areaVisibilityAndText_ofAllObjects_withSingleJavascriptCall() throws IOException {
+        WebElement header = untouchableElement();
+        WebElement menu = untouchableElement();
+        SnapshotDriver driver = new SnapshotDriver();
+        driver.snapshotResults.put("#header", asList((Object) header, 10L, 20L, 300L, 40L, true, "Welcome"));
+        driver.snapshotResults.put("#menu", asList((Object) menu, 10.4, 70L, 120L, 30L, false, ""));
+
+        SeleniumPage page = new SeleniumPage(driver);
+        Map<String, Locator> objects = new HashMap<String, Locator>();
+        objects.put("header", new Locator("css", "#header"));
+        objects.put("menu", new Locator("css", "#menu"));
+        objects.put("unknown", new Locator("css", "#unknown"));
+        page.takeSnapshot(objects);
+
+        PageElement headerElement = page.getObject("header", new Locator("css", "#header"));
+        assertThat(headerElement.getArea(), is(new Rect(10, 20, 300, 40)));
+        assertThat(headerElement.isVisible(), is(true));
+        assertThat(headerElement.getText(), is("Welcome"));
+
+        PageElement menuElement = page.getObject("menu", new Locator("css", "#menu"));
+        assertThat(menuElement.getArea(), is(new Rect(10, 70, 120, 30)));
+        assertThat(menuElement.isVisible(), is(false));
+
+        assertThat(page.getObject("unknown", new Locator("css", "#unknown")).isPresent(), is(false));
+
+        assertThat(driver.snapshotCalls, is(1));
+        assertThat(driver.findElementsCalls, is(0));
+    }
+
+    @Test
+    public void snapshot_shouldFallBack_toFetchingElementsOneByOne_whenScriptFails() throws IOException {
+        SnapshotDriver driver = new SnapshotDriver();
+        driver.failSnapshot = true;
+
+        SeleniumPage page = new SeleniumPage(driver);
+        page.takeSnapshot(Collections.singletonMap("menu", new Locator("css", "#menu .menu-item")));
+
+        PageElement menu = page.getObject("menu", new Locator("css", "#menu .menu-item"));
+        assertThat(menu.getArea(), is(new Rect(0, 0, 100, 10)));
+        assertThat(driver.snapshotCalls, is(1));
+        assertThat(driver.findElementsCalls, is(1));
+    }
+
+    @Test
+    public void sectionValidation_shouldTakeSnapshot_onlyWhenEnabledInConfig() throws IOException {
+        SnapshotDriver driver = new SnapshotDriver();
+        assertThat(checkLayoutWithSnapshotSpec(driver), is(empty()));
+        assertThat(driver.snapshotCalls, is(0));
+        assertThat(driver.findElementsCalls, is(1));
+
+        GalenConfig.getConfig().setProperty(GalenConfig.PAGE_SNAPSHOT, "true");
+        try {
+            driver = new SnapshotDriver();
+            driver.snapshotResults.put("#menu .menu-item", asList((Object) untouchableElement(), 0L, 0L, 100L, 10L, true, ""));
+
+            List<ValidationResult> results = checkLayoutWithSnapshotSpec(driver);
+            assertThat(results, is(empty()));
+            assertThat(driver.snapshotCalls, is(1));
+            assertThat(driver.findElementsCalls, is(0));
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.PAGE_SNAPSHOT, "false");
+        }
+    }
+
+    private List<ValidationResult> checkLayoutWithSnapshotSpec(SnapshotDriver driver) throws IOException {
+        SeleniumPage page = new SeleniumPage(driver);
+        PageSpec pageSpec = new PageSpecReader(new Properties(), page).read("/specs/page-snapshot.spec");
+        SectionFilter sectionFilter = new SectionFilter(Collections.<String>emptyList(), Collections.<String>emptyList());
+        PageValidation pageValidation = new PageValidation(new SeleniumBrowser(driver), page, pageSpec, null, sectionFilter);
+        return new SectionValidation(pageSpec.getSections(), pageValidation, null).check();
+    }
+
+    /**
+     * Creates element which fails on any call so that tests could make sure
+     * that all element data was taken from snapshot
+     */
+    private static WebElement untouchableElement() {
+        return (WebElement) Proxy.newProxyInstance(SeleniumPageTest.class.getClassLoader(), new Class<?>[]{WebElement.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                throw new AssertionError("Element should not be accessed: " + method.getName());
+            }
+        });
+    }
+
+    /**
+     * Responds to page snapshot script with prepared results which are mapped by locator value
+     */
+    private static class SnapshotDriver extends MockedDriver {
+        private final Map<String, List<Object>> snapshotResults = new HashMap<String, List<Object>>();
+        private boolean failSnapshot = false;
+        private int snapshotCalls = 0;
+        private int findElementsCalls = 0;
+
+        private SnapshotDriver() {
+            super("/mocks/pages/base-page.json");
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            findElementsCalls++;
+            return super.findElements(by);
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            super.executeScript(script, args);
+            if (isSnapshotScript(script)) {
+                snapshotCalls++;
+                if (failSnapshot) {
+                    throw new WebDriverException("Script failed");
+                }
+
+                List<List<Object>> results = new LinkedList<List<Object>>();
+                for (Object locator : (List<?>) args[1]) {
+                    results.add(snapshotResults.get(((List<?>) locator).get(1)));
+                }
+                return results;
+            }
+            return null;
+        }
+
+        private boolean isSnapshotScript(String script) {
+            try {
+                return script.equals(BrowserScripts.load("/selenium/page-snapshot.js"));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static class CountingDriver extends MockedDriver {
+        private int findElementsCalls = 0;
+
+        private CountingDriver() {
+            super("/mocks/pages/base-page.json");
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            findElementsCalls++;
+            return super.findElements(by);
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            super.executeScript(script, args);
+
+            List<List<WebElement>> results = new LinkedList<List<WebElement>>();
+            for (Object locator : (List<?>) args[1]) {
+                results.add(super.findElements(By.cssSelector((String) ((List<?>) locator).get(1))));
+            }
+            return results;
+        }
+    }
+}
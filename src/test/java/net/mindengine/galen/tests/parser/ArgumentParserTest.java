@@ -134,6 +134,55 @@ public class ArgumentParserTest {
                     .withFilter("Some Test *")
                     .withIncludedTags(EMPTY_TAGS)
                     .withExcludedTags(EMPTY_TAGS)},
+
+            {args("test", "mysuite",
+                            "--shard", "3/8"),
+                new GalenArguments()
+                    .withAction("test")
+                    .withPaths(asList("mysuite"))
+                    .withRecursive(false)
+                    .withShard("3/8")
+                    .withIncludedTags(EMPTY_TAGS)
+                    .withExcludedTags(EMPTY_TAGS)},
+
+            {args("test", "mysuite",
+                            "--shard", "3/8",
+                            "--shard-timings", getClass().getResource("/shard-timings.properties").getFile()),
+                new GalenArguments()
+                    .withAction("test")
+                    .withPaths(asList("mysuite"))
+                    .withRecursive(false)
+                    .withShard("3/8")
+                    .withShardTimings(getClass().getResource("/shard-timings.properties").getFile())
+                    .withIncludedTags(EMPTY_TAGS)
+                    .withExcludedTags(EMPTY_TAGS)},
+
+            {args("merge-reports", "shard-1", "shard-2",
+                            "--htmlreport", "report"),
+                new GalenArguments()
+                    .withAction("merge-reports")
+                    .withPaths(asList("shard-1", "shard-2"))
+                    .withRecursive(false)
+                    .withHtmlReport("report")
+                    .withIncludedTags(EMPTY_TAGS)
+                    .withExcludedTags(EMPTY_TAGS)},
+
+            {args("compile", "specs", "homepage.spec", "--recursive"),
+                new GalenArguments()
+                    .withAction("compile")
+                    .withPaths(asList("specs", "homepage.spec"))
+                    .withRecursive(true)
+                    .withIncludedTags(EMPTY_TAGS)
+                    .withExcludedTags(EMPTY_TAGS)},
+
+            {args("compile", "homepage.spec", "--properties", getClass().getResource("/compile.properties").getFile()),
+                new GalenArguments()
+                    .withAction("compile")
+                    .withPaths(asList("homepage.spec"))
+                    .withRecursive(false)
+                    .withProperties(getClass().getResource("/compile.properties").getFile())
+                    .withIncludedTags(EMPTY_TAGS)
+                    .withExcludedTags(EMPTY_TAGS)},
                     
             {args("check",  "some.spec",
                             "--url", "http://mindengine.net", 
@@ -228,6 +277,15 @@ public class ArgumentParserTest {
     @DataProvider
     public Object[][] provideBadSamples() {
         return new Object[][]{
+          {"Incorrect shard: 9/8. It should be defined like 3/8",
+              args("test", "mysuite", "--shard", "9/8")},
+
+          {"Shard timings file does not exist: missing-timings.properties",
+              args("test", "mysuite", "--shard", "3/8", "--shard-timings", "missing-timings.properties")},
+
+          {"Properties file does not exist: missing.properties",
+              args("compile", "homepage.spec", "--properties", "missing.properties")},
+
           {"Incorrect size: 123", 
               args("check", "some.spec", "--url", "http://example.com", "--size", "123")},
           
@@ -21,7 +21,9 @@ import static net.mindengine.galen.specs.page.Locator.id;
 import static net.mindengine.galen.specs.page.Locator.xpath;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import net.mindengine.galen.parser.GalenPageActionReader;
+import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.suite.actions.*;
@@ -62,6 +64,9 @@ public class GalenPageActionReaderTest {
                 .withSpecs(asList("page1.spec", "page2.spec", "page3.spec"))
                 .withIncludedTags(asList("mobile", "tablet"))
                 .withExcludedTags(asList("nomobile", "debug"))},
+            {"check page1.spec --stable 5s", new GalenPageActionCheck()
+                .withSpecs(asList("page1.spec"))
+                .withStableTimeout(5000)},
             {"cookie \"somecookie1\" \"somecookie2\" \"somecookie3\"", new GalenPageActionCookie().withCookies("somecookie1", "somecookie2", "somecookie3")},
             {"cookie \"somecookie1\"", new GalenPageActionCookie().withCookies("somecookie1")},
             {"wait 10s", new GalenPageActionWait().withTimeout(10000)},
@@ -78,6 +83,13 @@ public class GalenPageActionReaderTest {
             {"wait 10s until exist \"id: login\" gone \"xpath: //div[@id='qwe']\"", new GalenPageActionWait()
                 .withTimeout(10000)
                 .withUntilElements(asList(exist(id("login")), gone(xpath("//div[@id='qwe']"))))},
+            {"wait-stable 5s page1.spec page2.spec", new GalenPageActionWaitStable()
+                .withTimeout(5000)
+                .withSpecs(asList("page1.spec", "page2.spec"))},
+            {"wait-stable 3s page1.spec --frames 10", new GalenPageActionWaitStable()
+                .withTimeout(3000)
+                .withSpecs(asList("page1.spec"))
+                .withFrames(10)},
             {"properties \"some-path-1/file.properties\" file2.properties", new GalenPageActionProperties()
                 .withFiles(asList("some-path-1/file.properties", "file2.properties"))
             },
@@ -90,6 +102,20 @@ public class GalenPageActionReaderTest {
         };
     }
     
+    @Test
+    public void shouldNotAllow_lessThanOneFrame_forWaitStable() {
+        SyntaxException exception = null;
+        try {
+            GalenPageActionReader.readFrom("wait-stable 3s page1.spec --frames 0");
+        }
+        catch (SyntaxException e) {
+            exception = e;
+        }
+
+        assertThat("Exception should be thrown", exception, notNullValue());
+        assertThat(exception.getCause().getMessage(), is("Amount of frames should be at least 1: 0"));
+    }
+
     private static GalenPageActionWait.Until visible(Locator locator) {
         return new GalenPageActionWait.Until(UntilType.VISIBLE, locator);
     }
@@ -71,6 +71,28 @@ public class VarsParserTest {
 
         assertThat(realText, is(" got it from js: qwe-ert"));
     }
+
+    @Test
+    public void variablesAndImports_shouldNotLeak_toOtherProcessors() {
+        Context context = new Context();
+        VarsParser first = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+        VarsParser second = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+
+        assertThat(first.parse("${var secret = 'abc'; importClass(java.util.TreeMap); ''}${secret} ${new TreeMap().size()}"), is("abc 0"));
+        assertThat(second.parse("${typeof secret} ${typeof TreeMap}"), is("undefined undefined"));
+        assertThat(second.parse("${var secret = 'def'; secret}"), is("def"));
+        assertThat(first.parse("${secret}"), is("abc"));
+    }
+
+    @Test
+    public void extendedPrototypes_shouldWork_andNotLeak_toOtherProcessors() {
+        Context context = new Context();
+        VarsParser first = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+        VarsParser second = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+
+        assertThat(first.parse("${Array.prototype.last = Function('return this[this.length - 1]'); ''}${[1, 2, 30].last()}"), is("30"));
+        assertThat(second.parse("${typeof [].last}"), is("undefined"));
+    }
     
     
     @DataProvider public Object[][] provideGoodSamples() {
@@ -0,0 +1,219 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.reports;
+
+import net.mindengine.galen.reports.model.ArtifactWriter;
+import net.mindengine.galen.reports.model.FileTempStorage;
+import net.mindengine.rainbow4j.Rainbow4J;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class FileTempStorageTest {
+
+    @AfterMethod
+    public void resetReportDir() {
+        ArtifactWriter.setReportDir(null);
+    }
+
+    @Test
+    public void shouldWriteImages_directlyToReportDir_andKeepThem_afterCleanup() throws IOException {
+        File reportDir = createTempDir();
+        ArtifactWriter.setReportDir(reportDir);
+
+        FileTempStorage storage = new FileTempStorage("layout");
+        String name = storage.registerImage("map.png", new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB));
+
+        storage.copyAllFilesTo(reportDir);
+        storage.cleanup();
+
+        File file = new File(reportDir, name);
+        assertThat(file.exists(), is(true));
+        assertThat(Rainbow4J.loadImage(file.getAbsolutePath()).getWidth(), is(20));
+
+        FileUtils.deleteQuietly(reportDir);
+    }
+
+    @Test
+    public void shouldMoveTemporaryImages_toReportDir() throws IOException {
+        File reportDir = createTempDir();
+
+        FileTempStorage storage = new FileTempStorage("layout");
+        String name = storage.registerImage("map.png", new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB));
+        File tempFile = storage.getFiles().get(name);
+
+        storage.copyAllFilesTo(reportDir);
+        storage.cleanup();
+
+        assertThat(tempFile.exists(), is(false));
+        assertThat(new File(reportDir, name).exists(), is(true));
+
+        FileUtils.deleteQuietly(reportDir);
+    }
+
+    @Test
+    public void pendingTempFile_shouldBeWaitedFor_onlyWhenFilesAreRequested() throws Exception {
+        File reportDir = createTempDir();
+        final File tempFile = File.createTempFile("screenshot", ".png");
+        FutureTask<File> pendingFile = new FutureTask<File>(new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                return tempFile;
+            }
+        });
+
+        FileTempStorage storage = new FileTempStorage("test");
+        String name = storage.registerPendingTempFile("screenshot.png", pendingFile);
+        FileTempStorage otherLayoutStorage = storage.createStorageWithSharedNames("test");
+        assertThat(otherLayoutStorage.registerPendingTempFile("screenshot.png", pendingFile), is(name));
+        assertThat(pendingFile.isDone(), is(false));
+
+        pendingFile.run();
+        storage.copyAllFilesTo(reportDir);
+
+        assertThat(tempFile.exists(), is(false));
+        assertThat(new File(reportDir, name).exists(), is(true));
+
+        FileUtils.deleteQuietly(reportDir);
+    }
+
+    @Test
+    public void shouldCopyFiles_whichWereNotCreatedByGalen() throws IOException {
+        File reportDir = createTempDir();
+        File userFile = File.createTempFile("user-file", ".txt");
+        FileUtils.writeStringToFile(userFile, "some content");
+
+        FileTempStorage storage = new FileTempStorage("file");
+        String name = storage.registerFile("user-file.txt", userFile);
+
+        FileTempStorage.transferAllFiles(asList(storage), reportDir);
+
+        assertThat(userFile.exists(), is(true));
+        assertThat(FileUtils.readFileToString(new File(reportDir, name)), is("some content"));
+
+        FileUtils.deleteQuietly(userFile);
+        FileUtils.deleteQuietly(reportDir);
+    }
+
+    @Test
+    public void sharedTemporaryFile_shouldBeMovedOnce_andCopiedForOtherReports() throws IOException {
+        File htmlReportDir = createTempDir();
+        File jsonReportDir = createTempDir();
+        File screenshot = File.createTempFile("screenshot", ".png");
+        FileUtils.writeStringToFile(screenshot, "screenshot");
+
+        FileTempStorage firstStorage = new FileTempStorage("layout");
+        FileTempStorage secondStorage = new FileTempStorage("layout");
+        String firstName = firstStorage.registerTempFile("screenshot.png", screenshot);
+        String secondName = secondStorage.registerTempFile("screenshot.png", screenshot);
+
+        FileTempStorage.transferAllFiles(asList(firstStorage, secondStorage), htmlReportDir);
+        FileTempStorage.transferAllFiles(asList(firstStorage, secondStorage), jsonReportDir);
+        firstStorage.cleanup();
+        secondStorage.cleanup();
+
+        assertThat(screenshot.exists(), is(false));
+        for (File dir : asList(htmlReportDir, jsonReportDir)) {
+            assertThat(FileUtils.readFileToString(new File(dir, firstName)), is("screenshot"));
+            assertThat(FileUtils.readFileToString(new File(dir, secondName)), is("screenshot"));
+        }
+
+        FileUtils.deleteQuietly(htmlReportDir);
+        FileUtils.deleteQuietly(jsonReportDir);
+    }
+
+    @Test
+    public void filesWithTheSameContent_shouldBeStoredInReport_onlyOnce() throws IOException {
+        File reportDir = createTempDir();
+        String content = "screenshot " + System.nanoTime();
+        File firstScreenshot = File.createTempFile("screenshot", ".png");
+        File retriedScreenshot = File.createTempFile("screenshot", ".png");
+        FileUtils.writeStringToFile(firstScreenshot, content);
+        FileUtils.writeStringToFile(retriedScreenshot, content);
+
+        FileTempStorage testStorage = new FileTempStorage("file");
+        FileTempStorage firstCheck = testStorage.createStorageWithSharedNames("layout");
+        FileTempStorage secondCheck = testStorage.createStorageWithSharedNames("layout");
+        String firstName = firstCheck.registerTempFile("screenshot.png", firstScreenshot);
+        String secondName = secondCheck.registerTempFile("screenshot.png", retriedScreenshot);
+
+        assertThat(secondName, is(firstName));
+
+        FileTempStorage.transferAllFiles(asList(firstCheck, secondCheck), reportDir);
+        firstCheck.cleanup();
+        secondCheck.cleanup();
+
+        assertThat(asList(reportDir.list()), is(asList(firstName)));
+        assertThat(FileUtils.readFileToString(new File(reportDir, firstName)), is(content));
+        assertThat(firstScreenshot.exists(), is(false));
+        assertThat(retriedScreenshot.exists(), is(false));
+
+        FileUtils.deleteQuietly(reportDir);
+    }
+
+    @Test
+    public void filesWithTheSameContent_shouldGetDifferentNames_inUnrelatedStorages() throws IOException {
+        File firstFile = File.createTempFile("screenshot", ".png");
+        File secondFile = File.createTempFile("screenshot", ".png");
+        FileUtils.writeStringToFile(firstFile, "screenshot");
+        FileUtils.writeStringToFile(secondFile, "screenshot");
+
+        String firstName = new FileTempStorage("layout").registerFile("screenshot.png", firstFile);
+        String secondName = new FileTempStorage("layout").registerFile("screenshot.png", secondFile);
+
+        assertThat(secondName, is(not(firstName)));
+
+        FileUtils.deleteQuietly(firstFile);
+        FileUtils.deleteQuietly(secondFile);
+    }
+
+    @Test
+    public void reportRebuilt_intoDeletedFolder_shouldStillGetAllFiles() throws IOException {
+        File reportDir = createTempDir();
+        File userFile = File.createTempFile("user-file", ".txt");
+        FileUtils.writeStringToFile(userFile, "some content");
+
+        FileTempStorage storage = new FileTempStorage("file");
+        String name = storage.registerFile("user-file.txt", userFile);
+
+        FileTempStorage.transferAllFiles(asList(storage), reportDir);
+        FileUtils.deleteDirectory(reportDir);
+        FileTempStorage.transferAllFiles(asList(new FileTempStorage("file"), storage), reportDir);
+
+        assertThat(FileUtils.readFileToString(new File(reportDir, name)), is("some content"));
+
+        FileUtils.deleteQuietly(userFile);
+        FileUtils.deleteQuietly(reportDir);
+    }
+
+    private File createTempDir() throws IOException {
+        File dir = File.createTempFile("galen-report", "");
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+}
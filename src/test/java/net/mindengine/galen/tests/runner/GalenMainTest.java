@@ -328,5 +328,63 @@ public class GalenMainTest {
                 "Test 1 with filter two",
                 "Test 2 with filter"));
     }
-}
 
+    @Test
+    public void shouldSplitTestsBetweenShards_exactly_evenWhenLocalTestDurationsDiffer() throws Exception {
+        String testUrl = getClass().getResource("/suites/suite-for-filtering.test").getFile();
+        File tempDir = Files.createTempDir();
+
+        FileUtils.writeStringToFile(new File(tempDir, "durations-1.properties"),
+                "Test\\ 1\\ with\\ filter\\ one=5000\nTest\\ 3=100\n");
+        FileUtils.writeStringToFile(new File(tempDir, "durations-2.properties"),
+                "Test\\ 2\\ with\\ filter=8000\nTest\\ 1\\ with=3000\n");
+
+        final List<String> executedTests = new LinkedList<String>();
+        for (int shard = 1; shard <= 2; shard++) {
+            GalenConfig.getConfig().setProperty(GalenConfig.TEST_DURATIONS_FILE,
+                    new File(tempDir, "durations-" + shard + ".properties").getAbsolutePath());
+
+            GalenMain galen = new GalenMain();
+            galen.setListener(new DummyCompleteListener() {
+                @Override
+                public void onTestStarted(GalenTest test) {
+                    executedTests.add(test.getName());
+                }
+            });
+            galen.execute(new GalenArguments()
+                .withAction("test")
+                .withPaths(asList(testUrl))
+                .withShard(shard + "/2")
+            );
+        }
+
+        assertThat(executedTests, containsInAnyOrder(
+                "Test 1 with filter one",
+                "Test 1 with",
+                "Test 1 with filter two",
+                "Test 2 with filter",
+                "Test 3"));
+    }
+
+    @Test
+    public void shouldBalanceShards_usingSharedTimingsFile() throws Exception {
+        String testUrl = getClass().getResource("/suites/suite-for-filtering.test").getFile();
+
+        final List<String> executedTests = new LinkedList<String>();
+        GalenMain galen = new GalenMain();
+        galen.setListener(new DummyCompleteListener() {
+            @Override
+            public void onTestStarted(GalenTest test) {
+                executedTests.add(test.getName());
+            }
+        });
+        galen.execute(new GalenArguments()
+            .withAction("test")
+            .withPaths(asList(testUrl))
+            .withShard("1/2")
+            .withShardTimings(getClass().getResource("/shard-timings.properties").getFile())
+        );
+
+        assertThat(executedTests, containsInAnyOrder("Test 1 with filter one", "Test 1 with"));
+    }
+}
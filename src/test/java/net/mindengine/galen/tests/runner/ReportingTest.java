@@ -20,6 +20,7 @@ import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -152,6 +153,76 @@ public class ReportingTest {
         ));
     }
 
+    @Test
+    public void shouldMergeJsonReports_fromSeveralShards() throws Exception {
+        String tempDir = Files.createTempDir().getAbsolutePath();
+
+        for (int shard = 1; shard <= 2; shard++) {
+            resetUniqueIdForFileTempStorage();
+            GalenTestInfo testInfo = new GalenTestInfo("Home page test", new GalenEmptyTest("Home page test", asList("mobile")));
+            testInfo.getReport().info("Some info").withAttachment("some-file.txt", File.createTempFile("some-file", ".txt"));
+            if (shard == 2) {
+                testInfo.setException(new FakeException("Some exception here"));
+            }
+            new JsonReportBuilder().build(asList(testInfo), tempDir + "/shard-" + shard);
+        }
+
+        ReportMerger reportMerger = new ReportMerger()
+                .add(new File(tempDir + "/shard-1"))
+                .add(new File(tempDir + "/shard-2"));
+        reportMerger.buildJsonReport(tempDir + "/merged");
+        reportMerger.buildTestNgReport(tempDir + "/merged-testng.xml");
+
+        assertThat("Merged report folder contains files", asList(new File(tempDir + "/merged").list()), containsInAnyOrder(
+                "1-home-page-test.json",
+                "2-home-page-test.json",
+                "shard1-file-1-some-file.txt",
+                "shard2-file-1-some-file.txt",
+                "report.json"
+        ));
+
+        JsonNode overview = new ObjectMapper().readTree(new File(tempDir + "/merged/report.json"));
+        assertThat(overview.get("tests").get(0).get("failed").asBoolean(), is(false));
+        assertThat(overview.get("tests").get(1).get("failed").asBoolean(), is(true));
+        assertThat(overview.get("tests").get(1).get("groups").get(0).asText(), is("mobile"));
+
+        String secondTestReport = readFileToString(new File(tempDir + "/merged/2-home-page-test.json"));
+        assertThat(secondTestReport.contains("\"shard2-file-1-some-file.txt\""), is(true));
+
+        String testngXml = readFileToString(new File(tempDir + "/merged-testng.xml"));
+        assertThat(testngXml.contains("<exception class=\"" + FakeException.class.getName() + "\">"), is(true));
+    }
+
+    @Test
+    public void shouldWriteReports_incrementally_andReleaseTestReports() throws Exception {
+        String tempDir = Files.createTempDir().getAbsolutePath();
+        IncrementalReportWriter reportWriter = new IncrementalReportWriter(tempDir + "/html-report", tempDir + "/json-report");
+
+        GalenTestInfo testInfo = new GalenTestInfo("Home page test", new GalenEmptyTest("Home page test", asList("mobile")));
+        testInfo.getReport().info("Some info").withAttachment("some-file.txt", File.createTempFile("some-file", ".txt"));
+        testInfo.getReport().error("Some error");
+
+        reportWriter.onTestCompleted(testInfo);
+
+        assertThat("Json report folder contains files", asList(new File(tempDir + "/json-report").list()), containsInAnyOrder(
+                "1-home-page-test.json",
+                "file-1-some-file.txt"
+        ));
+        assertThat(new File(tempDir + "/html-report/1-home-page-test.html").exists(), is(true));
+        assertThat(new File(tempDir + "/html-report/file-1-some-file.txt").exists(), is(true));
+
+        assertThat(testInfo.getReport().getNodes(), is(nullValue()));
+        assertThat(testInfo.getReport().fetchStatistic().getErrors(), is(1));
+        assertThat(testInfo.isFailed(), is(true));
+
+        reportWriter.finish();
+
+        JsonNode overview = new ObjectMapper().readTree(new File(tempDir + "/json-report/report.json"));
+        assertThat(overview.get("tests").get(0).get("testId").asText(), is("1-home-page-test"));
+        assertThat(overview.get("tests").get(0).get("failed").asBoolean(), is(true));
+        assertThat(new File(tempDir + "/html-report/report.html").exists(), is(true));
+    }
+
     private void resetUniqueIdForFileTempStorage() throws NoSuchFieldException, IllegalAccessException {
         Field _uniqueIdField = FileTempStorage.class.getDeclaredField("_uniqueId");
         _uniqueIdField.setAccessible(true);
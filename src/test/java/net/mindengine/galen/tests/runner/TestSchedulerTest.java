@@ -0,0 +1,119 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.runner;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.mindengine.galen.TestRunnable;
+import net.mindengine.galen.reports.GalenTestInfo;
+import net.mindengine.galen.reports.TestReport;
+import net.mindengine.galen.runner.CompleteListener;
+import net.mindengine.galen.runner.EventHandler;
+import net.mindengine.galen.runner.TestDurations;
+import net.mindengine.galen.runner.TestScheduler;
+import net.mindengine.galen.tests.GalenTest;
+
+import org.testng.annotations.Test;
+
+public class TestSchedulerTest {
+
+    @Test
+    public void shouldOrderTests_startingFromUnknown_andThenLongest() {
+        TestDurations durations = new TestDurations(null);
+        durations.record("short", 100);
+        durations.record("long", 5000);
+        durations.record("medium", 1000);
+
+        List<TestRunnable> tests = testRunnables(new LinkedList<GalenTestInfo>(), "short", "new-1", "long", "medium", "new-2");
+
+        List<String> names = new LinkedList<String>();
+        for (TestRunnable test : new TestScheduler(2, durations).order(tests)) {
+            names.add(test.getTest().getName());
+        }
+
+        assertThat(names, contains("new-1", "new-2", "long", "medium", "short"));
+    }
+
+    @Test
+    public void shouldRunAllTests_andStoreTheirDurations() throws IOException {
+        File file = File.createTempFile("galen-durations", ".properties");
+        file.delete();
+        file.deleteOnExit();
+
+        List<GalenTestInfo> testInfos = Collections.synchronizedList(new LinkedList<GalenTestInfo>());
+        TestScheduler scheduler = new TestScheduler(3, TestDurations.load(file));
+        scheduler.run(testRunnables(testInfos, "test-1", "test-2", "test-3", "test-4"));
+
+        assertThat(testInfos.size(), is(4));
+        assertThat(scheduler.getFinishedTests(), is(4));
+        assertThat(scheduler.getEstimatedTimeLeft(), is(0L));
+
+        TestDurations savedDurations = TestDurations.load(file);
+        for (String name : asList("test-1", "test-2", "test-3", "test-4")) {
+            assertThat(savedDurations.get(name), is(notNullValue()));
+        }
+    }
+
+    @Test
+    public void shouldAverageDurations_withPreviousRuns() {
+        TestDurations durations = new TestDurations(null);
+        durations.record("test", 1000);
+        durations.record("test", 3000);
+
+        assertThat(durations.get("test"), is(2000L));
+    }
+
+    private List<TestRunnable> testRunnables(List<GalenTestInfo> testInfos, String... names) {
+        List<TestRunnable> tests = new LinkedList<TestRunnable>();
+        for (String name : names) {
+            tests.add(new TestRunnable(new SleepingTest(name), null, new EventHandler(), testInfos));
+        }
+        return tests;
+    }
+
+    private static class SleepingTest implements GalenTest {
+        private final String name;
+
+        private SleepingTest(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void execute(TestReport report, CompleteListener listener) throws Exception {
+            Thread.sleep(10);
+        }
+
+        @Override
+        public List<String> getGroups() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.runner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import net.mindengine.galen.runner.TestDurations;
+import net.mindengine.galen.runner.TestShard;
+import net.mindengine.galen.tests.GalenEmptyTest;
+import net.mindengine.galen.tests.GalenTest;
+
+import org.testng.annotations.Test;
+
+public class TestShardTest {
+
+    @Test
+    public void shouldSplitAllTests_betweenShards_withoutOverlapping() {
+        List<GalenTest> tests = tests("test-1", "test-2", "test-3", "test-4", "test-5", "test-6", "test-7");
+        TestDurations durations = new TestDurations(null);
+        durations.record("test-2", 3000);
+        durations.record("test-5", 1000);
+
+        List<String> allSelected = new LinkedList<String>();
+        for (int shard = 1; shard <= 3; shard++) {
+            allSelected.addAll(names(new TestShard(shard, 3).select(tests, durations)));
+        }
+
+        assertThat(allSelected, containsInAnyOrder("test-1", "test-2", "test-3", "test-4", "test-5", "test-6", "test-7"));
+    }
+
+    @Test
+    public void shouldBalanceTests_byTheirDurations() {
+        List<GalenTest> tests = tests("long", "medium-1", "medium-2", "short");
+        TestDurations durations = new TestDurations(null);
+        durations.record("long", 4000);
+        durations.record("medium-1", 2000);
+        durations.record("medium-2", 2000);
+        durations.record("short", 100);
+
+        assertThat(names(new TestShard(1, 2).select(tests, durations)), containsInAnyOrder("long", "short"));
+        assertThat(names(new TestShard(2, 2).select(tests, durations)), containsInAnyOrder("medium-1", "medium-2"));
+    }
+
+    @Test
+    public void shouldSplitTests_byHash_whenNoTimingsAreGiven() {
+        List<GalenTest> tests = tests("test-1", "test-2", "test-3", "test-4", "test-5", "test-6", "test-7");
+
+        List<String> firstShard = names(new TestShard(1, 2).select(tests));
+        List<String> secondShard = names(new TestShard(2, 2).select(tests));
+
+        List<String> allSelected = new LinkedList<String>(firstShard);
+        allSelected.addAll(secondShard);
+        assertThat(allSelected, containsInAnyOrder("test-1", "test-2", "test-3", "test-4", "test-5", "test-6", "test-7"));
+        assertThat(names(new TestShard(1, 2).select(tests)), is(firstShard));
+    }
+
+    @Test
+    public void shouldParseShard() {
+        TestShard shard = TestShard.parse("3/8");
+        assertThat(shard.getIndex(), is(3));
+        assertThat(shard.getCount(), is(8));
+    }
+
+    private List<String> names(List<GalenTest> tests) {
+        List<String> names = new LinkedList<String>();
+        for (GalenTest test : tests) {
+            names.add(test.getName());
+        }
+        return names;
+    }
+
+    private List<GalenTest> tests(String... names) {
+        List<GalenTest> tests = new LinkedList<GalenTest>();
+        for (String name : names) {
+            tests.add(new GalenEmptyTest(name, null));
+        }
+        return tests;
+    }
+}
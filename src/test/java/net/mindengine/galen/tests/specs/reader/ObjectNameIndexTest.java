@@ -0,0 +1,113 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.ObjectNameIndex;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class ObjectNameIndexTest {
+
+    @Test(dataProvider = "provideRegexSamples")
+    public void shouldFindObjectNames_matchingRegex(String regex, List<String> expectedNames) {
+        ObjectNameIndex index = new ObjectNameIndex();
+        index.addAll(asList("menu-item-1", "menu-item-2", "menu-item-10", "menu-item-q", "menu", "menu-icon",
+                "header", "header-logo", "ac", "abc", "abbc", "footer.link"));
+
+        assertThat(index.find(regex), is(expectedNames));
+    }
+
+    @DataProvider
+    public Object[][] provideRegexSamples() {
+        return new Object[][] {
+            {"menu-item-[0-9]+", asList("menu-item-1", "menu-item-10", "menu-item-2")},
+            {"menu-item-[a-zA-Z0-9_]+", asList("menu-item-1", "menu-item-10", "menu-item-2", "menu-item-q")},
+            {"menu.*", asList("menu", "menu-icon", "menu-item-1", "menu-item-10", "menu-item-2", "menu-item-q")},
+            {".*-logo", asList("header-logo")},
+            {"menu|header", asList("header", "menu")},
+            {"ab?c", asList("abc", "ac")},
+            {"ab*c", asList("abbc", "abc", "ac")},
+            {"ab{2}c", asList("abbc")},
+            {"footer\\.link", asList("footer.link")},
+            {"header", asList("header")},
+            {"unknown-.*", asList()}
+        };
+    }
+
+    @Test
+    public void pageSpec_shouldKeepIndexUpToDate_withChangesOfObjects() {
+        PageSpec pageSpec = new PageSpec();
+        pageSpec.addObject("item-1", new Locator("css", ".item-1"));
+        pageSpec.getObjects().put("item-2", new Locator("css", ".item-2"));
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), contains("item-1", "item-2"));
+
+        pageSpec.getObjects().remove("item-1");
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), contains("item-2"));
+
+        PageSpec copy = pageSpec.copy();
+        copy.addObject("item-3", new Locator("css", ".item-3"));
+        assertThat(copy.findObjectNames("item-[0-9]+"), contains("item-2", "item-3"));
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), contains("item-2"));
+
+        Map<String, Locator> objects = new HashMap<String, Locator>();
+        objects.put("box-1", new Locator("css", ".box"));
+        pageSpec.setObjects(objects);
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), is(empty()));
+        assertThat(pageSpec.findMatchingObjectNames("box-*"), contains("box-1"));
+
+        pageSpec.getObjects().clear();
+        assertThat(pageSpec.findMatchingObjectNames("box-*"), is(empty()));
+    }
+
+    @Test
+    public void pageSpec_shouldKeepIndexUpToDate_withRemovalsViaViewsAndIterators() {
+        PageSpec pageSpec = new PageSpec();
+        for (int i = 1; i <= 6; i++) {
+            pageSpec.addObject("item-" + i, new Locator("css", ".item-" + i));
+        }
+
+        pageSpec.getObjects().keySet().remove("item-1");
+        pageSpec.getObjects().values().remove(new Locator("css", ".item-2"));
+
+        Iterator<Map.Entry<String, Locator>> iterator = pageSpec.getObjects().entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().equals("item-3")) {
+                iterator.remove();
+            }
+        }
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), contains("item-4", "item-5", "item-6"));
+
+        pageSpec.getObjects().keySet().retainAll(asList("item-5"));
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), contains("item-5"));
+
+        pageSpec.getObjects().values().clear();
+        assertThat(pageSpec.findObjectNames("item-[0-9]+"), is(empty()));
+    }
+}
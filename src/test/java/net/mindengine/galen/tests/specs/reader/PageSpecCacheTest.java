@@ -0,0 +1,183 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class PageSpecCacheTest {
+
+    @AfterMethod
+    public void disableSpecCache() {
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_CACHE_SIZE, "0");
+        PageSpecCache.reset();
+    }
+
+    @Test
+    public void shouldCreateDifferentKeys_forDifferentContentAndProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("a", "1");
+
+        String key = PageSpecCache.createKey("some.spec", "content".getBytes(), properties);
+
+        assertThat(PageSpecCache.createKey("some.spec", "content".getBytes(), properties), is(key));
+        assertThat(PageSpecCache.createKey("some.spec", "content2".getBytes(), properties), is(not(key)));
+        assertThat(PageSpecCache.createKey("other.spec", "content".getBytes(), properties), is(not(key)));
+        assertThat(PageSpecCache.createKey("some.spec", "content".getBytes(), new Properties()), is(not(key)));
+    }
+
+    @Test
+    public void shouldEvict_leastRecentlyUsedEntries() {
+        PageSpecCache cache = new PageSpecCache(2);
+        cache.put("a", PageSpecCache.Entry.pageDependent());
+        cache.put("b", PageSpecCache.Entry.pageDependent());
+        cache.get("a");
+        cache.put("c", PageSpecCache.Entry.pageDependent());
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("a"), is(notNullValue()));
+        assertThat(cache.get("b"), is(nullValue()));
+        assertThat(cache.get("c"), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldBeDisabled_whenSizeIsZero() {
+        assertThat(new PageSpecCache(0).isEnabled(), is(false));
+        assertThat(new PageSpecCache(10).isEnabled(), is(true));
+    }
+
+    @Test
+    public void shouldInvalidateEntry_whenDependencyIsModified() throws IOException {
+        File file = File.createTempFile("galen-cache-dependency", ".spec");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, "# some spec");
+        file.setLastModified(10000L);
+
+        PageSpecCache cache = new PageSpecCache(10);
+        cache.put("key", PageSpecCache.Entry.pageIndependent(new PageSpec(), new Properties(), Arrays.asList(file.getAbsolutePath())));
+
+        assertThat(cache.get("key"), is(notNullValue()));
+
+        file.setLastModified(20000L);
+        assertThat(cache.get("key"), is(nullValue()));
+    }
+
+    @Test
+    public void copyOfPageSpec_shouldNotBeAffected_byMergingSections() throws IOException {
+        PageSpec pageSpec = new PageSpecReader(new Properties(), null).read(getClass().getResource("/specs.txt").getFile());
+        int objectsBefore = pageSpec.getSections().get(0).getObjects().size();
+
+        PageSpec copy = pageSpec.copy();
+        copy.getSections().get(0).getObjects().clear();
+        copy.getObjects().clear();
+
+        assertThat(copy.getSections().get(0), is(not(sameInstance(pageSpec.getSections().get(0)))));
+        assertThat(pageSpec.getSections().get(0).getObjects().size(), is(objectsBefore));
+        assertThat(pageSpec.getObjects().isEmpty(), is(false));
+    }
+
+    @Test
+    public void reader_shouldTakeDeepCopies_ofCachedSpec() throws IOException {
+        PageSpecCache cache = enableSpecCache();
+
+        PageSpec first = new PageSpecReader(new Properties(), null).read("/specs.txt");
+        PageSpec second = new PageSpecReader(new Properties(), null).read("/specs.txt");
+
+        assertThat(cache.size(), is(1));
+        ObjectSpecs firstObject = first.getSections().get(0).getObjects().get(0);
+        ObjectSpecs secondObject = second.getSections().get(0).getObjects().get(0);
+        assertThat(secondObject, is(not(sameInstance(firstObject))));
+        assertThat(secondObject.getSpecs().get(0), is(not(sameInstance(firstObject.getSpecs().get(0)))));
+        assertThat(secondObject.getSpecs().get(0).getOriginalText(), is(firstObject.getSpecs().get(0).getOriginalText()));
+        assertThat(second.getObjectLocator("menu"), is(not(sameInstance(first.getObjectLocator("menu")))));
+    }
+
+    @Test
+    public void pageDependentSpec_shouldBeParsed_againstPage_everyTime() throws IOException {
+        PageSpecCache cache = enableSpecCache();
+        String specPath = getClass().getResource("/specs/count-via-js.spec").getFile();
+
+        for (int i = 0; i < 2; i++) {
+            MockedDriver driver = new MockedDriver();
+            driver.get("/mocks/pages/count-via-js-page.json");
+            Page page = new SeleniumBrowser(driver).getPage();
+
+            List<ObjectSpecs> objects = new PageSpecReader(new Properties(), page).read(specPath).getSections().get(0).getObjects();
+            assertThat(objects.size(), is(3));
+        }
+
+        byte[] content = FileUtils.readFileToByteArray(new File(specPath));
+        assertThat(cache.get(PageSpecCache.createKey(specPath, content, new Properties())).isPageDependent(), is(true));
+    }
+
+    @Test
+    public void reader_shouldShareJavascript_betweenSpecs_whenFirstSpecIsTakenFromCache() throws IOException {
+        enableSpecCache();
+        new PageSpecReader(new Properties(), null).read("/specs/cache/define-function.spec");
+
+        PageSpecReader reader = new PageSpecReader(new Properties(), null);
+        reader.read("/specs/cache/define-function.spec");
+        PageSpec pageSpec = reader.read("/specs/cache/use-function.spec");
+
+        ObjectSpecs header = pageSpec.getSections().get(0).getObjects().get(0);
+        assertThat(header.getSpecs().get(0).getOriginalText(), is("text is: some-text"));
+    }
+
+    @Test
+    public void reader_shouldKeep_propertiesSetInCachedSpec() throws IOException {
+        enableSpecCache();
+        String spec = "@@ set greeting hello\n";
+        File file = File.createTempFile("galen-cache-set", ".spec");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, spec);
+
+        new PageSpecReader(new Properties(), null).read(file.getAbsolutePath());
+
+        Properties properties = new Properties();
+        new PageSpecReader(properties, null).read(file.getAbsolutePath());
+        assertThat(properties.getProperty("greeting"), is("hello"));
+    }
+
+    private PageSpecCache enableSpecCache() {
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_CACHE_SIZE, "10");
+        PageSpecCache.reset();
+        return PageSpecCache.getInstance();
+    }
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecImage;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCompiler;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.specs.reader.page.TaggedPageSection;
+import net.mindengine.rainbow4j.filters.BlurFilter;
+import net.mindengine.rainbow4j.filters.DenoiseFilter;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class PageSpecCompilerTest {
+
+    private static final long SOURCE_TIME = 10000000L;
+    private static final String TEST_FOLDER = "_test_PageSpecCompilerTest";
+
+    private File dir;
+    private File mainSpec;
+    private File importedSpec;
+
+    @BeforeMethod
+    public void createSpecs() throws IOException {
+        // relative folder as javascript imports are resolved relatively to the spec folder
+        dir = new File(TEST_FOLDER);
+        FileUtils.forceMkdir(dir);
+
+        importedSpec = new File(dir, "header.spec");
+        FileUtils.writeStringToFile(importedSpec, "==========================\n" +
+                "header      id  header\n" +
+                "menu-item-* css #menu li\n" +
+                "==========================\n" +
+                "\n" +
+                "@@ rule: %{objectName} should be visible\n" +
+                "    ${objectName}\n" +
+                "        visible\n" +
+                "@@ end\n");
+
+        mainSpec = new File(dir, "main.spec");
+        FileUtils.writeStringToFile(mainSpec, "@@ import header.spec\n" +
+                "@@ set headerWidth 100\n" +
+                "==========================\n" +
+                "logo        xpath //img\n" +
+                "==========================\n" +
+                "@ Main section | desktop, mobile\n" +
+                "------------------\n" +
+                "header\n" +
+                "    width: ${headerWidth} px\n" +
+                "    height: ${10 * 5} px\n" +
+                "logo\n" +
+                "    image: file logo.png, error 2%, filter blur 2, map-filter denoise 1\n" +
+                "\n" +
+                "| header should be visible\n");
+
+        importedSpec.setLastModified(SOURCE_TIME);
+        mainSpec.setLastModified(SOURCE_TIME);
+    }
+
+    @AfterMethod
+    public void removeSpecs() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void compiledSpec_shouldBeLoaded_insteadOfParsingSources() throws IOException {
+        assertThat(new PageSpecCompiler().compile(mainSpec.getPath(), new Properties()), is(true));
+
+        // making the source broken but older than compiled spec so that only compiled spec could be read
+        FileUtils.writeStringToFile(mainSpec, "header\n    unknown-spec\n");
+        mainSpec.setLastModified(SOURCE_TIME);
+
+        Properties properties = new Properties();
+        PageSpec pageSpec = new PageSpecReader(properties, null).read(mainSpec.getPath());
+
+        assertThat(properties.getProperty("headerWidth"), is("100"));
+        assertThat(pageSpec.getObjects().get("header"), is(new Locator("id", "header")));
+        assertThat(pageSpec.getObjects().get("logo"), is(new Locator("xpath", "//img")));
+        assertThat(pageSpec.getMultiObjects().get("menu-item-*"), is(new Locator("css", "#menu li")));
+
+        List<TaggedPageSection> sections = pageSpec.getSections();
+        assertThat(sections.size(), is(1));
+        assertThat(sections.get(0).getName(), is("Main section"));
+        assertThat(sections.get(0).getTags(), contains("desktop", "mobile"));
+        assertThat(specTexts(sections.get(0).getObjects()), contains("header: width: 100 px", "header: height: 50 px", "logo: image: file logo.png, error 2%, filter blur 2, map-filter denoise 1"));
+
+        SpecImage specImage = (SpecImage) sections.get(0).getObjects().get(1).getSpecs().get(0);
+        assertThat(((BlurFilter) specImage.getOriginalFilters().get(0)).getRadius(), is(2));
+        assertThat(((DenoiseFilter) specImage.getMapFilters().get(0)).getRadius(), is(1));
+
+        assertThat(sections.get(0).getSections().size(), is(1));
+        assertThat(sections.get(0).getSections().get(0).getName(), is("header should be visible"));
+        assertThat(specTexts(sections.get(0).getSections().get(0).getObjects()), contains("header: visible"));
+    }
+
+    @Test
+    public void compiledSpec_shouldNotBeUsed_whenImportedSpecIsModified() throws IOException {
+        new PageSpecCompiler().compile(mainSpec.getPath(), new Properties());
+
+        FileUtils.writeStringToFile(importedSpec, "==========================\nheader  css .header\n==========================\n" +
+                "@@ rule: %{objectName} should be visible\n    ${objectName}\n        visible\n@@ end\n");
+        importedSpec.setLastModified(PageSpecCompiler.getCompiledFile(mainSpec.getPath()).lastModified() + 5000);
+
+        PageSpec pageSpec = new PageSpecReader(new Properties(), null).read(mainSpec.getPath());
+
+        assertThat(pageSpec.getObjects().get("header"), is(new Locator("css", ".header")));
+    }
+
+    @Test
+    public void compiledSpec_shouldNotBeUsed_withDifferentProperties() throws IOException {
+        new PageSpecCompiler().compile(mainSpec.getPath(), new Properties());
+
+        FileUtils.writeStringToFile(mainSpec, "==========================\nheader  css .other-header\n==========================\n");
+        mainSpec.setLastModified(SOURCE_TIME);
+
+        Properties properties = new Properties();
+        properties.setProperty("someProperty", "someValue");
+        PageSpec pageSpec = new PageSpecReader(properties, null).read(mainSpec.getPath());
+
+        assertThat(pageSpec.getObjects().get("header"), is(new Locator("css", ".other-header")));
+    }
+
+    @Test
+    public void compiledSpec_shouldBeUsed_withPropertiesItWasCompiledWith() throws IOException {
+        Properties compileProperties = new Properties();
+        compileProperties.setProperty("headerWidth", "200");
+        FileUtils.writeStringToFile(mainSpec, "==========================\nheader  css .header\n==========================\n" +
+                "header\n    width: ${headerWidth} px\n");
+        mainSpec.setLastModified(SOURCE_TIME);
+        new PageSpecCompiler().compile(mainSpec.getPath(), compileProperties);
+
+        FileUtils.writeStringToFile(mainSpec, "header\n    unknown-spec\n");
+        mainSpec.setLastModified(SOURCE_TIME);
+
+        Properties properties = new Properties();
+        properties.setProperty("headerWidth", "200");
+        PageSpec pageSpec = new PageSpecReader(properties, null).read(mainSpec.getPath());
+
+        assertThat(specTexts(pageSpec.getSections().get(0).getObjects()), contains("header: width: 200 px"));
+    }
+
+    @Test
+    public void javascriptFromCompiledSpec_shouldBeAvailable_forNextSpecsReadBySameReader() throws IOException {
+        File script = new File(dir, "functions.js");
+        FileUtils.writeStringToFile(script, "function headerHeight() { return 50; }\n");
+        FileUtils.writeStringToFile(mainSpec, "@@ import functions.js\n" +
+                "==========================\nheader  css .header\n==========================\n");
+        File otherSpec = new File(dir, "other.spec");
+        FileUtils.writeStringToFile(otherSpec, "header\n    height: ${headerHeight()} px\n");
+        script.setLastModified(SOURCE_TIME);
+        mainSpec.setLastModified(SOURCE_TIME);
+
+        new PageSpecCompiler().compile(mainSpec.getPath(), new Properties());
+
+        PageSpecReader reader = new PageSpecReader(new Properties(), null);
+        reader.read(mainSpec.getPath());
+        PageSpec pageSpec = reader.read(otherSpec.getPath());
+
+        assertThat(specTexts(pageSpec.getSections().get(0).getObjects()), contains("header: height: 50 px"));
+    }
+
+    @Test
+    public void pageDependentSpec_shouldNotBeCompiled() throws IOException {
+        FileUtils.writeStringToFile(mainSpec, "==========================\nmenu-item-*  css #menu li\n==========================\n" +
+                "menu-item-1\n    width: ${count('menu-item-*') * 10} px\n");
+
+        assertThat(new PageSpecCompiler().compile(mainSpec.getPath(), new Properties()), is(false));
+        assertThat(PageSpecCompiler.getCompiledFile(mainSpec.getPath()).exists(), is(false));
+    }
+
+    private List<String> specTexts(List<ObjectSpecs> objects) {
+        List<String> texts = new LinkedList<String>();
+        for (ObjectSpecs objectSpecs : objects) {
+            for (Spec spec : objectSpecs.getSpecs()) {
+                texts.add(objectSpecs.getObjectName() + ": " + spec.getOriginalText());
+            }
+        }
+        return texts;
+    }
+}
@@ -761,6 +761,19 @@ public class PageSpecsReaderTest {
         assertThat(pageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("text is: some value from-javascript function"));
     }
 
+    @Test
+    public void shouldAllowTo_extendBuiltInPrototypes_inImportedJavascript() throws IOException {
+        FileUtils.copyFile(new File(getClass().getResource("/specs/spec-with-prototype-extension.spec").getFile()),
+                new File(TEST_FOLDER + File.separator  + "spec-with-prototype-extension.spec"));
+
+        FileUtils.copyFile(new File(getClass().getResource("/specs/prototypeExtension.js").getFile()),
+                new File(TEST_FOLDER + File.separator  + "prototypeExtension.js"));
+
+        PageSpecReader specReader = new PageSpecReader(new Properties(), EMPTY_PAGE);
+        PageSpec pageSpec = specReader.read(TEST_FOLDER + File.separator + "spec-with-prototype-extension.spec");
+        assertThat(pageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("height: 30px"));
+    }
+
     @Test
     public void shouldAllowToUse_pageObjectProperties_inJsExpressions_via_findFunction() throws IOException {
         WebDriver driver = new MockedDriver();
@@ -831,6 +844,16 @@ public class PageSpecsReaderTest {
 
     }
 
+    @Test
+    public void shouldImport_differentSpecs_withTheSameFileName() throws IOException {
+        PageSpec pageSpec = readSpec("/specs/same-name-import/main.spec");
+
+        assertThat(pageSpec.getSections().size(), is(2));
+        assertThat(pageSpec.getSections().get(0).getObjects().get(0).getObjectName(), is("header-logo"));
+        assertThat(pageSpec.getSections().get(1).getObjects().get(0).getObjectName(), is("footer-logo"));
+        assertThat(pageSpec.getObjectLocator("footer-logo"), is(new Locator("css", "#footer .logo")));
+    }
+
     /**
      * https://github.com/galenframework/galen/issues/149
      * @throws IOException
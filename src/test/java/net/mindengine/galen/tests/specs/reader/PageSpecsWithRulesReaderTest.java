@@ -173,6 +173,15 @@ public class PageSpecsWithRulesReaderTest {
 
     }
 
+    @Test
+    public void rulesUsedInImportedSpecs_shouldNotBeDuplicated() throws IOException {
+        PageSpec pageSpec = readPageSpec("rule-used-in-several-imports.spec");
+
+        assertThat(pageSpec.getRules().size(), is(1));
+        assertThat(pageSpec.getSections().size(), is(3));
+        assertThat(pageSpec.getSections().get(2).getSections().get(0).getName(), is("item-3 should be visible"));
+    }
+
     private PageSpec readPageSpec(String specName) throws IOException {
         return new PageSpecReader(null, EMPTY_PAGE).read("/page-spec-with-rules/" + specName);
     }
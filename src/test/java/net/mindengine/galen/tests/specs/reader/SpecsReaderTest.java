@@ -1037,6 +1037,17 @@ public class SpecsReaderTest {
     public void givesError_whenTextIsEmpty() throws IOException {
         readSpec(" ");
     }
+
+    @Test(expectedExceptions={SyntaxException.class}, expectedExceptionsMessageRegExp="Such constraint does not exist: lefty of")
+    public void givesError_whenSpecDoesNotExist() throws IOException {
+        readSpec("lefty of: object 10px");
+    }
+
+    @Test
+    public void shouldReadSpec_withSeveralSpacesBetweenWords() throws IOException {
+        SpecLeftOf specLeftOf = (SpecLeftOf)readSpec("left   of: object 10px");
+        assertThat(specLeftOf.getObject(), is("object"));
+    }
     
     @Test(expectedExceptions={SyntaxException.class}, expectedExceptionsMessageRegExp="Incorrect error rate syntax: \" 23 to 123px\"") 
     public void givesError_withIncorrect_errorRate_inSpec_centered() throws IOException {
@@ -16,16 +16,27 @@
 package net.mindengine.galen.tests.utils;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.InputStream;
 
+import javax.imageio.ImageIO;
+
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
 import net.mindengine.galen.utils.GalenUtils;
 
 import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.OutputType;
 import org.testng.annotations.Test;
 
 public class GalenUtilsTest {
@@ -58,4 +69,97 @@ public class GalenUtilsTest {
         FileUtils.deleteQuietly(tempDir);
         FileUtils.deleteQuietly(testFile2);
     }
+
+    @Test
+    public void shouldStitch_fullPageScreenshot_fromScrolledTiles() throws Exception {
+        BufferedImage image = GalenUtils.makeFullScreenshotImage(new ScrollingDriver());
+
+        assertThat(image.getWidth(), is(10));
+        assertThat(image.getHeight(), is(250));
+        assertThat(new Color(image.getRGB(5, 50)), is(Color.red));
+        assertThat(new Color(image.getRGB(5, 150)), is(Color.green));
+        assertThat(new Color(image.getRGB(5, 225)), is(Color.blue));
+    }
+
+    /**
+     * Page of 250px height in a window of 100px height which is painted red, green and blue from top to bottom
+     */
+    private static class ScrollingDriver extends MockedDriver {
+        private long scroll = 0;
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            super.executeScript(script, args);
+            if (script.startsWith("window.scrollTo(0, ")) {
+                scroll = Long.parseLong(script.substring("window.scrollTo(0, ".length(), script.indexOf(')')));
+                return null;
+            }
+            else if (script.contains("pageYOffset")) {
+                return scroll;
+            }
+            else if (script.contains("scrollHeight")) {
+                return 250L;
+            }
+            else return 1L;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> outputType) {
+            BufferedImage tile = new BufferedImage(10, 100, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = tile.createGraphics();
+            for (int y = 0; y < 100; y++) {
+                long pageY = Math.min(scroll, 150) + y;
+                graphics.setColor(pageY < 100 ? Color.red : pageY < 200 ? Color.green : Color.blue);
+                graphics.drawLine(0, y, 9, y);
+            }
+            graphics.dispose();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                ImageIO.write(tile, "png", bytes);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return (X) bytes.toByteArray();
+        }
+    }
+
+    @Test
+    public void fileId_shouldConsistOf_fileName_andHashOfContent() throws Exception {
+        File dir = createTempDir();
+        File first = new File(dir, "first/common.spec");
+        File second = new File(dir, "second/common.spec");
+        File third = new File(dir, "third/common.spec");
+        FileUtils.writeStringToFile(first, "hello");
+        FileUtils.writeStringToFile(second, "hello");
+        FileUtils.writeStringToFile(third, "other content");
+
+        assertThat(GalenUtils.calculateFileId(first.getPath()), is("common.spec5d41402abc4b2a76b9719d911017c592"));
+        assertThat(GalenUtils.calculateFileId(second.getPath()), is(GalenUtils.calculateFileId(first.getPath())));
+        assertThat(GalenUtils.calculateFileId(third.getPath()), is(not(GalenUtils.calculateFileId(first.getPath()))));
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void fileId_shouldBeRecalculated_whenFileIsModified() throws Exception {
+        File dir = createTempDir();
+        File file = new File(dir, "some.spec");
+        FileUtils.writeStringToFile(file, "hello");
+        file.setLastModified(10000L);
+        String id = GalenUtils.calculateFileId(file.getPath());
+
+        FileUtils.writeStringToFile(file, "hello again");
+        file.setLastModified(20000L);
+
+        assertThat(GalenUtils.calculateFileId(file.getPath()), is(not(id)));
+        FileUtils.deleteQuietly(dir);
+    }
+
+    private File createTempDir() throws Exception {
+        File dir = File.createTempFile("galen-file-id", "");
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
 }
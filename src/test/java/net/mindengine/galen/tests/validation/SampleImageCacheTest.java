@@ -0,0 +1,104 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.validation;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+
+import net.mindengine.galen.validation.specs.SampleImageCache;
+import net.mindengine.rainbow4j.ComparisonOptions;
+import net.mindengine.rainbow4j.ImageCompareResult;
+import net.mindengine.rainbow4j.Rainbow4J;
+import net.mindengine.rainbow4j.filters.BlurFilter;
+import net.mindengine.rainbow4j.filters.ImageFilter;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class SampleImageCacheTest {
+
+    private static final String SAMPLE = "/imgs/button-sample-correct.png";
+
+    @Test
+    public void shouldLoadImageOnlyOnce() throws IOException {
+        SampleImageCache cache = new SampleImageCache(10 * 1024 * 1024);
+
+        BufferedImage image = cache.getImage(SAMPLE);
+
+        assertThat(cache.getImage(SAMPLE), is(sameInstance(image)));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldReloadImage_whenFileIsModified() throws IOException {
+        File file = File.createTempFile("galen-sample", ".png");
+        file.deleteOnExit();
+        FileUtils.copyInputStreamToFile(getClass().getResourceAsStream(SAMPLE), file);
+        file.setLastModified(10000L);
+
+        SampleImageCache cache = new SampleImageCache(10 * 1024 * 1024);
+        BufferedImage image = cache.getImage(file.getAbsolutePath());
+
+        file.setLastModified(20000L);
+        BufferedImage reloadedImage = cache.getImage(file.getAbsolutePath());
+
+        assertThat(reloadedImage == image, is(false));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    @Test
+    public void shouldEvictImages_whenMemoryLimitIsReached() throws IOException {
+        BufferedImage image = Rainbow4J.loadImage(getClass().getResourceAsStream(SAMPLE));
+        long imageSize = image.getWidth() * image.getHeight() * 4;
+
+        SampleImageCache cache = new SampleImageCache(imageSize * 3 / 2);
+        cache.getImage(SAMPLE);
+        cache.getImage("/imgs/button-sample-incorrect.png");
+
+        assertThat(cache.size(), is(1));
+        assertThat(cache.getUsedBytes() <= imageSize * 3 / 2, is(true));
+    }
+
+    @Test
+    public void filteredImage_shouldGiveSameComparisonResult_asFilteringInRainbow4j() throws IOException {
+        BufferedImage pageImage = Rainbow4J.loadImage(getClass().getResourceAsStream("/imgs/page-screenshot.png"));
+        BufferedImage sampleImage = Rainbow4J.loadImage(getClass().getResourceAsStream(SAMPLE));
+        Rectangle sampleArea = new Rectangle(0, 0, sampleImage.getWidth(), sampleImage.getHeight());
+        Rectangle pageArea = new Rectangle(100, 90, sampleImage.getWidth(), sampleImage.getHeight());
+
+        ComparisonOptions options = new ComparisonOptions();
+        options.setSampleFilters(asList((ImageFilter) new BlurFilter(2)));
+        ImageCompareResult expected = Rainbow4J.compare(pageImage, sampleImage, pageArea, sampleArea, options);
+
+        SampleImageCache cache = new SampleImageCache(10 * 1024 * 1024);
+        BufferedImage filteredImage = cache.getFilteredImage(SAMPLE, asList((ImageFilter) new BlurFilter(2)), sampleArea);
+        ComparisonOptions noSampleFilters = new ComparisonOptions();
+        noSampleFilters.setSampleFilters(new LinkedList<ImageFilter>());
+        ImageCompareResult actual = Rainbow4J.compare(pageImage, filteredImage, pageArea, sampleArea, noSampleFilters);
+
+        assertThat(actual.getTotalPixels(), is(expected.getTotalPixels()));
+        assertThat(cache.getFilteredImage(SAMPLE, asList((ImageFilter) new BlurFilter(2)), sampleArea), is(sameInstance(filteredImage)));
+    }
+}
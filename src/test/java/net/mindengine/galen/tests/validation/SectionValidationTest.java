@@ -19,6 +19,9 @@ import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.components.MockedBrowser;
 import net.mindengine.galen.components.validation.MockedInvisiblePageElement;
 import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.components.validation.TestValidationListener;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.specs.Spec;
 import net.mindengine.galen.specs.page.PageSection;
@@ -69,6 +72,36 @@ public class SectionValidationTest {
 
     }
 
+    @Test
+    public void shouldReportGeometricSpecs_inOriginalOrder_whenCheckedInParallel() throws IOException {
+        String sequentialInvokations = checkParallelGeometrySpec();
+
+        GalenConfig.getConfig().setProperty(GalenConfig.VALIDATION_THREADS, "4");
+        try {
+            assertThat(checkParallelGeometrySpec(), is(sequentialInvokations));
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.VALIDATION_THREADS, "0");
+        }
+    }
+
+    private String checkParallelGeometrySpec() throws IOException {
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("header", new MockedPageElement(0, 0, 1000, 100));
+            put("menu", new MockedPageElement(10, 105, 200, 50).withText("Menu"));
+            put("button", new MockedPageElement(220, 105, 100, 30));
+            put("caption", new MockedInvisiblePageElement(220, 150, 100, 30));
+        }});
+        Browser browser = new MockedBrowser("", new Dimension(1024, 768), page);
+
+        TestValidationListener validationListener = new TestValidationListener();
+        PageSpec pageSpec = readPageSpec("/specs/parallel-geometry.spec");
+        PageValidation pageValidation = new PageValidation(browser, page, pageSpec, validationListener, EMPTY_SECTION_FILTER);
+        new SectionValidation(pageSpec.getSections(), pageValidation, validationListener).check();
+
+        return validationListener.getInvokations();
+    }
+
     private ValidationListener createRecordingListenerForObjectNames(final List<String> validatedObjectNames) {
         return new ValidationListener() {
             @Override
@@ -34,6 +34,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.components.validation.MockedAbsentPageElement;
 import net.mindengine.galen.components.validation.MockedInvisiblePageElement;
 import net.mindengine.galen.components.validation.MockedPage;
@@ -76,6 +77,27 @@ public class ValidationTest {
         assertThat(error, is(nullValue()));
     }
     
+    @Test
+    public void shouldCompareImageCandidatesInParallel_andGiveSameResults() {
+        MockedPage page = page(new HashMap<String, PageElement>(){{
+            put("object", element(100, 90, 100, 40));
+        }}, imageComparisonTestScreenshot);
+        PageValidation validation = new PageValidation(null, page, createMockedPageSpec(page), null, null);
+
+        SpecImage passingSpec = specImage(asList("/imgs/button-sample-incorrect.png", "/imgs/page-sample-correct.png", "/imgs/button-sample-correct.png"), 1, PIXEL_UNIT, 0, 5);
+        SpecImage failingSpec = specImage(asList("/imgs/button-sample-incorrect.png", "/imgs/button-sample-incorrect.png"), 600, PIXEL_UNIT, 0, 10);
+        ValidationError expectedError = validation.check("object", failingSpec).getError();
+
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_IMAGE_THREADS, "4");
+        try {
+            assertThat(validation.check("object", passingSpec).getError(), is(nullValue()));
+            assertThat(validation.check("object", failingSpec).getError(), is(expectedError));
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.SPEC_IMAGE_THREADS, "0");
+        }
+    }
+
     private BufferedImage loadTestImage(String imagePath) {
         try {
             return Rainbow4J.loadImage(getClass().getResource(imagePath).getFile());
@@ -0,0 +1,7 @@
+=====================
+item-1    css .item-1
+=====================
+
+@ Usage 1
+-------------------
+| item-1 should be visible
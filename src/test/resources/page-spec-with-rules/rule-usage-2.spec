@@ -0,0 +1,7 @@
+=====================
+item-2    css .item-2
+=====================
+
+@ Usage 2
+-------------------
+| item-2 should be visible
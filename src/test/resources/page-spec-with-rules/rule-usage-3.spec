@@ -0,0 +1,7 @@
+=====================
+item-3    css .item-3
+=====================
+
+@ Usage 3
+-------------------
+| item-3 should be visible
@@ -0,0 +1,8 @@
+@@ rule: %{element} should be visible
+    ${element}
+        visible
+@@ end
+
+@@ import rule-usage-1.spec
+@@ import rule-usage-2.spec
+@@ import rule-usage-3.spec
@@ -0,0 +1,8 @@
+@@import ../customFunction.js
+
+=======================================
+header          css     #header
+=======================================
+
+header
+    width: 100px
@@ -0,0 +1,2 @@
+header
+    text is: ${customFunction("some", "text")}
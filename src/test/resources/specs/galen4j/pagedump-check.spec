@@ -0,0 +1,14 @@
+=================================
+button-save         css .save-button
+name-textfield      id  name-textfield
+menu-item-*         css .menu-item
+=================================
+
+@ *
+button-save
+    near: name-textfield 50 px left
+    text is: Save
+
+menu-item-*
+    inside: button-save
+    width: 30px
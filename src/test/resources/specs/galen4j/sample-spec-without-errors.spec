@@ -0,0 +1,10 @@
+====================================
+save-button     css .save-button
+name-textfield  id  name-textfield
+====================================
+
+
+@ *
+save-button
+    width: 100px
+    near: name-textfield 10 px left
@@ -0,0 +1,7 @@
+=======================================
+menu            css     #menu .menu-item
+=======================================
+
+menu:
+    width: 100px
+    height: 10px
@@ -0,0 +1,33 @@
+=======================================
+header          css     #header
+menu            css     #menu
+button          css     #button
+caption         css     #caption
+=======================================
+
+menu:
+    inside: header 10px left, 5px top
+    below: header 0 to 5px
+    width: 200px
+    height: 50% of header/height
+    aligned horizontally top: button
+    text is: Menu
+    near: button 10px left
+    centered horizontally inside: header
+
+button:
+    inside: header 10px left
+    width: 100 to 120px
+    height: 30px
+    above: caption 10px
+    absent:
+
+@@ rule: should be %{width} pixels wide inside header
+    width: ${width} px
+    inside: header
+@@ end
+
+button
+    | should be 90 pixels wide inside header
+    below: header 5px
+    near: menu 10px right
@@ -0,0 +1,8 @@
+=====================
+footer-logo    css #footer .logo
+=====================
+
+@ Footer
+-------------
+footer-logo
+    width: 50px
@@ -0,0 +1,8 @@
+=====================
+header-logo    css #header .logo
+=====================
+
+@ Header
+-------------
+header-logo
+    width: 100px
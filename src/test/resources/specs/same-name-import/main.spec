@@ -0,0 +1,3 @@
+@@ import header/common.spec
+
+@@ import footer/common.spec
@@ -0,0 +1,8 @@
+@@import prototypeExtension.js
+
+=======================================
+menu            css     #menu
+=======================================
+
+menu:
+    height: ${[1, 2, 30].last()}px